@@ -0,0 +1,108 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmitterBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int tableCount;
+
+    private List<ClassModel> classModels;
+    private List<Map<String, Object>> templateContexts;
+    private InMemoryOutputSink outputSink;
+    private Generator generator;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticSchema schema = new SyntheticSchema(tableCount);
+        Path directory = Files.createTempDirectory("emitter-benchmark");
+        Path sqlFile = schema.writeTo(directory);
+        classModels = schema.parse(sqlFile);
+        Files.delete(sqlFile);
+        Files.delete(directory);
+
+        Properties config = new Properties();
+        config.setProperty("backendRootPath", "backend");
+        config.setProperty("frontendRootPath", "frontend");
+        outputSink = new InMemoryOutputSink();
+        generator = new Generator(sqlFile.toString(), 1);
+        generator.prepareEmitters(config, new OutputWriter(outputSink));
+        templateContexts = new ArrayList<>();
+        for (ClassModel classModel : classModels) {
+            templateContexts.add(TemplateContext.of(classModel, config));
+        }
+    }
+
+    private int emit(BiConsumer<ClassModel, Map<String, Object>> emitter) {
+        for (int i = 0; i < classModels.size(); i++) {
+            emitter.accept(classModels.get(i), templateContexts.get(i));
+        }
+        return outputSink.getFileCount();
+    }
+
+    @Benchmark
+    public int jpaEntityClass() {
+        return emit(generator::createJpaEntityClass);
+    }
+
+    @Benchmark
+    public int javaDtoClass() {
+        return emit(generator::createJavaDtoClass);
+    }
+
+    @Benchmark
+    public int jpaRepositoryInterface() {
+        return emit(generator::createJpaRepositoryInterface);
+    }
+
+    @Benchmark
+    public int projectionInterface() {
+        return emit(generator::createProjectionInterface);
+    }
+
+    @Benchmark
+    public int mapStructMapperInterface() {
+        return emit(generator::createMapStructMapperInterface);
+    }
+
+    @Benchmark
+    public int javaMapperClass() {
+        return emit(generator::createJavaMapperClass);
+    }
+
+    @Benchmark
+    public int springServiceClass() {
+        return emit(generator::createSpringServiceClass);
+    }
+
+    @Benchmark
+    public int restControllerClass() {
+        return emit(generator::createRestControllerClass);
+    }
+
+    @Benchmark
+    public int typeScriptClass() {
+        return emit(generator::createTypeScriptClass);
+    }
+
+    @Benchmark
+    public int angularServiceClass() {
+        return emit(generator::createAngularServiceClass);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int tableCount;
+
+    private SyntheticSchema schema;
+    private Path directory;
+    private Path sqlFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        schema = new SyntheticSchema(tableCount);
+        directory = Files.createTempDirectory("parser-benchmark");
+        sqlFile = schema.writeTo(directory);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(sqlFile);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) throws IOException {
+        SqlTokenizer.parse(sqlFile, new SchemaListener() {
+            @Override
+            public void onTable(String tableName) {
+                blackhole.consume(tableName);
+            }
+
+            @Override
+            public void onColumn(String tableName, String columnName, String columnType, String definition) {
+                blackhole.consume(definition);
+            }
+
+            @Override
+            public void onTableEnd(String tableName) {
+                blackhole.consume(tableName);
+            }
+        });
+    }
+
+    @Benchmark
+    public List<ClassModel> parseIntoClassModels() throws IOException {
+        return schema.parse(sqlFile);
+    }
+
+    @Benchmark
+    public ClassModel retrieveAndSaveProperty() {
+        ClassModel classModel = new ClassModel("BusinessObject", "business_object");
+        for (String[] column : schema.getColumns()) {
+            ClassModelBuilder.retrieveAndSaveProperty(classModel, column[0], column[1]);
+        }
+        return classModel;
+    }
+
+    // The constructor does the pluralization and the CaseFormat conversions of the names.
+    @Benchmark
+    public void constructClassModels(Blackhole blackhole) {
+        for (int i = 0; i < tableCount; i++) {
+            blackhole.consume(new ClassModel("BusinessObject" + i, "business_object_" + i));
+        }
+    }
+}
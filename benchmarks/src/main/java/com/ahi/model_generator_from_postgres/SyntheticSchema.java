@@ -0,0 +1,68 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Generates a schema with every column type the generator knows, every tenth table being an enum table
+// (id, name, label) the other tables reference.
+public class SyntheticSchema {
+
+    private final List<String[]> columns = new ArrayList<>();
+    private final String sql;
+
+    public SyntheticSchema(int tableCount) {
+        StringBuilder sqlBuilder = new StringBuilder();
+        for (int i = 0; i < tableCount; i++) {
+            String tableName = tableName(i);
+            sqlBuilder.append("CREATE TABLE public.").append(tableName).append(" (\n");
+            addColumn(sqlBuilder, "id", "SERIAL");
+            addColumn(sqlBuilder, "name", "text NOT NULL");
+            if (i % 10 == 0) {
+                addColumn(sqlBuilder, "label", "text NOT NULL");
+            }
+            else {
+                addColumn(sqlBuilder, tableName(i - i % 10) + "_id", "integer NOT NULL");
+                addColumn(sqlBuilder, "description", "text");
+                addColumn(sqlBuilder, "price", "numeric(10,2)");
+                addColumn(sqlBuilder, "valid_from", "date");
+                addColumn(sqlBuilder, "created_at", "timestamp without time zone");
+                addColumn(sqlBuilder, "is_active", "boolean DEFAULT true");
+                addColumn(sqlBuilder, "position", "integer");
+            }
+            sqlBuilder.append("    CONSTRAINT ").append(tableName).append("_pk PRIMARY KEY (id)\n);\n\n");
+        }
+        sql = sqlBuilder.toString();
+    }
+
+    private static String tableName(int index) {
+        return (index % 10 == 0 ? "lookup_type_" : "business_object_") + index;
+    }
+
+    private void addColumn(StringBuilder sqlBuilder, String columnName, String definition) {
+        sqlBuilder.append("    ").append(columnName).append(' ').append(definition).append(",\n");
+        columns.add(new String[] {columnName, definition.split(" ")[0]});
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    // Column name and type pairs, in the order of the schema.
+    public List<String[]> getColumns() {
+        return columns;
+    }
+
+    public Path writeTo(Path directory) throws IOException {
+        return Files.writeString(directory.resolve("schema.sql"), sql, StandardCharsets.UTF_8);
+    }
+
+    public List<ClassModel> parse(Path sqlFile) throws IOException {
+        List<ClassModel> classModels = new ArrayList<>();
+        SqlTokenizer.parse(sqlFile, new ClassModelBuilder(classModels::add));
+        return classModels;
+    }
+}
@@ -0,0 +1,146 @@
+package com.ahi.model_generator_from_postgres.maven;
+
+import com.ahi.model_generator_from_postgres.Generator;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Runs the generator inside the build JVM. The generators are kept for the whole build (the plugin class realm is
+// shared by the modules), so a schema used by several modules is parsed once, and the manifest of every backend stays
+// in memory. The run is skipped while the fingerprint of the inputs (the schema files, the configuration and the
+// template overrides) equals the one recorded in the stamp file, and the generated files still exist.
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateMojo extends AbstractMojo {
+
+    private static final Map<String, Generator> GENERATORS = new ConcurrentHashMap<>();
+    // Relative paths in these keys are relative to the module, not to the directory Maven was started in.
+    private static final List<String> PATH_PROPERTIES = List.of("backendRootPath", "frontendRootPath", "templatesPath");
+
+    // SQL file path, directory or glob pattern, pg_dump archive, or JDBC URL
+    @Parameter(property = "modelGenerator.schemaSource", required = true)
+    private String schemaSource;
+
+    // The same keys as config.properties, the properties below override the ones of the file.
+    @Parameter(property = "modelGenerator.configFile")
+    private File configFile;
+
+    @Parameter
+    private Properties properties;
+
+    // 0: one thread per CPU core
+    @Parameter(property = "modelGenerator.threads", defaultValue = "0")
+    private int threads;
+
+    @Parameter(property = "modelGenerator.clean", defaultValue = "false")
+    private boolean clean;
+
+    @Parameter(property = "modelGenerator.stats", defaultValue = "false")
+    private boolean stats;
+
+    @Parameter(property = "modelGenerator.force", defaultValue = "false")
+    private boolean force;
+
+    @Parameter(property = "modelGenerator.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Parameter(defaultValue = "${project.build.directory}/model-generator.stamp", required = true)
+    private File stampFile;
+
+    @Parameter(defaultValue = "${project.basedir}", readonly = true, required = true)
+    private File basedir;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping the model generator.");
+            return;
+        }
+        Properties config = loadConfiguration();
+        if (config.getProperty("backendRootPath") == null || config.getProperty("frontendRootPath") == null) {
+            throw new MojoExecutionException("backendRootPath and frontendRootPath have to be configured.");
+        }
+        String schemaSource = this.schemaSource.startsWith("jdbc:") ? this.schemaSource : resolve(this.schemaSource);
+        int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        Generator generator;
+        try {
+            generator = GENERATORS.computeIfAbsent(schemaSource + "|" + threadCount, x -> {
+                try {
+                    return new Generator(schemaSource, threadCount);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            throw new MojoExecutionException("Could not create the generator.", e.getCause());
+        }
+        // Runs of the same generator (modules built in parallel) are serialized, so the check is made inside.
+        synchronized (generator) {
+            Path stampPath = stampFile.toPath();
+            String fingerprint;
+            try {
+                fingerprint = generator.inputFingerprint(config);
+                if (!force && fingerprint != null && Files.exists(stampPath)
+                        && fingerprint.equals(Files.readString(stampPath, StandardCharsets.UTF_8).trim())
+                        && generator.isOutputComplete(config)) {
+                    getLog().info("The schema, the configuration and the templates are unchanged, nothing to generate.");
+                    return;
+                }
+                Files.deleteIfExists(stampPath);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Could not read the inputs of " + schemaSource, e);
+            }
+            generator.setDeleteFilesOfDroppedTables(clean);
+            generator.setPrintStats(stats);
+            if (!generator.generate(config)) {
+                throw new MojoFailureException("The files of " + schemaSource + " could not be generated, see the output above.");
+            }
+            if (fingerprint != null) {
+                try {
+                    Files.createDirectories(stampPath.toAbsolutePath().getParent());
+                    Files.writeString(stampPath, fingerprint, StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    getLog().warn("Could not write " + stampPath + ", the next build generates again.");
+                }
+            }
+        }
+    }
+
+    private Properties loadConfiguration() throws MojoExecutionException {
+        Properties config = new Properties();
+        if (configFile != null) {
+            try (FileInputStream inputStream = new FileInputStream(configFile)) {
+                config.load(inputStream);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Could not read " + configFile, e);
+            }
+        }
+        if (properties != null) {
+            config.putAll(properties);
+        }
+        for (String key : PATH_PROPERTIES) {
+            if (config.getProperty(key) != null) {
+                config.setProperty(key, resolve(config.getProperty(key)));
+            }
+        }
+        return config;
+    }
+
+    // java.io.File, as a glob pattern is not always a valid Path (e.g. * on Windows).
+    private String resolve(String path) {
+        return new File(path).isAbsolute() ? path : new File(basedir, path).getPath();
+    }
+}
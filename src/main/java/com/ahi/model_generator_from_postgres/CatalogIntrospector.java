@@ -0,0 +1,215 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+// Reads the tables of a live database from its catalog and reports them to a SchemaListener, the same way the
+// SqlTokenizer reports the tables of a SQL file. All tables are loaded with set-based queries (columns, keys, then
+// indexes) instead of a round trip per table. The columns and keys come from the standard information_schema views,
+// so they can also be read from in-process databases with a PostgreSQL compatibility mode. Indexes are only in
+// pg_catalog, so they are left out when that can not be queried.
+public class CatalogIntrospector {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String COLUMNS_QUERY = "SELECT c.table_name, c.column_name, c.data_type, c.column_default,"
+            + " c.is_nullable, c.is_identity, c.character_maximum_length, c.numeric_precision, c.numeric_scale"
+            + " FROM information_schema.columns c"
+            + " JOIN information_schema.tables t ON t.table_schema = c.table_schema AND t.table_name = c.table_name"
+            + " WHERE c.table_schema = ? AND t.table_type = 'BASE TABLE'"
+            + " ORDER BY c.table_name, c.ordinal_position";
+
+    private static final String KEYS_QUERY = "SELECT tc.table_name, tc.constraint_name, tc.constraint_type,"
+            + " kcu.column_name, referenced.table_name"
+            + " FROM information_schema.table_constraints tc"
+            + " JOIN information_schema.key_column_usage kcu ON kcu.constraint_schema = tc.constraint_schema"
+            + " AND kcu.constraint_name = tc.constraint_name AND kcu.table_name = tc.table_name"
+            + " LEFT JOIN information_schema.referential_constraints rc ON rc.constraint_schema = tc.constraint_schema"
+            + " AND rc.constraint_name = tc.constraint_name"
+            + " LEFT JOIN information_schema.table_constraints referenced"
+            + " ON referenced.constraint_schema = rc.unique_constraint_schema"
+            + " AND referenced.constraint_name = rc.unique_constraint_name"
+            + " WHERE tc.table_schema = ? AND tc.constraint_type IN ('PRIMARY KEY', 'FOREIGN KEY', 'UNIQUE')"
+            + " ORDER BY tc.table_name, tc.constraint_name, kcu.ordinal_position";
+
+    // Indexes of plain columns, which are not already there for a primary key, unique or exclusion constraint.
+    // Expression and partial indexes are left out, and so are the INCLUDE columns.
+    private static final String INDEXES_QUERY = "SELECT t.relname, i.relname, ix.indisunique, a.attname"
+            + " FROM pg_catalog.pg_index ix"
+            + " JOIN pg_catalog.pg_class i ON i.oid = ix.indexrelid"
+            + " JOIN pg_catalog.pg_class t ON t.oid = ix.indrelid"
+            + " JOIN pg_catalog.pg_namespace n ON n.oid = t.relnamespace"
+            + " CROSS JOIN LATERAL unnest(ix.indkey::int2[]) WITH ORDINALITY AS k(attnum, position)"
+            + " JOIN pg_catalog.pg_attribute a ON a.attrelid = t.oid AND a.attnum = k.attnum"
+            + " WHERE n.nspname = ? AND ix.indexprs IS NULL AND ix.indpred IS NULL AND k.position <= ix.indnkeyatts"
+            + " AND NOT EXISTS (SELECT 1 FROM pg_catalog.pg_constraint c"
+            + " WHERE c.conindid = ix.indexrelid AND c.contype IN ('p', 'u', 'x'))"
+            + " ORDER BY t.relname, i.relname, k.position";
+
+    private static class Column {
+        private final String name;
+        private final String type;
+        private final String definition;
+
+        private Column(String name, String type, String definition) {
+            this.name = name;
+            this.type = type;
+            this.definition = definition;
+        }
+    }
+
+    private static class Key {
+        private final String constraintType;
+        private final List<String> columnNames = new ArrayList<>();
+        private String referencedTableName;
+
+        private Key(String constraintType) {
+            this.constraintType = constraintType;
+        }
+    }
+
+    private CatalogIntrospector() {
+    }
+
+    public static void introspect(String jdbcUrl, Properties connectionProperties, String schemaName,
+                                  SchemaListener listener) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, connectionProperties)) {
+            connection.setReadOnly(true);
+            // The driver only honours the fetch size (instead of loading the whole result) inside a transaction.
+            connection.setAutoCommit(false);
+            Map<String, List<Column>> columnsByTable = readColumns(connection, schemaName);
+            Map<String, Map<String, Key>> keysByTable = readKeys(connection, schemaName);
+            Map<String, Map<String, IndexModel>> indexesByTable;
+            try {
+                indexesByTable = readIndexes(connection, schemaName);
+                connection.commit();
+            } catch (SQLException e) {
+                // Not a PostgreSQL catalog, the tables are generated without @Index annotations.
+                connection.rollback();
+                indexesByTable = Map.of();
+            }
+            for (Map.Entry<String, List<Column>> table : columnsByTable.entrySet()) {
+                String tableName = table.getKey();
+                listener.onTable(tableName);
+                for (Column column : table.getValue()) {
+                    listener.onColumn(tableName, column.name, column.type, column.definition);
+                }
+                for (Map.Entry<String, Key> entry : keysByTable.getOrDefault(tableName, Map.of()).entrySet()) {
+                    Key key = entry.getValue();
+                    if (key.constraintType.equals("PRIMARY KEY")) {
+                        listener.onPrimaryKey(tableName, key.columnNames);
+                    }
+                    else if (key.constraintType.equals("UNIQUE")) {
+                        listener.onUniqueConstraint(tableName, entry.getKey(), key.columnNames);
+                    }
+                    else if (key.referencedTableName != null) {
+                        listener.onForeignKey(tableName, key.columnNames, key.referencedTableName);
+                    }
+                }
+                for (IndexModel index : indexesByTable.getOrDefault(tableName, Map.of()).values()) {
+                    listener.onIndex(tableName, index.getName(), index.getColumnNames(), index.isUnique());
+                }
+                listener.onTableEnd(tableName);
+            }
+            listener.onSchemaEnd();
+        }
+    }
+
+    private static Map<String, List<Column>> readColumns(Connection connection, String schemaName) throws SQLException {
+        Map<String, List<Column>> columnsByTable = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(COLUMNS_QUERY)) {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, schemaName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String tableName = resultSet.getString(1);
+                    String dataType = resultSet.getString(3).toLowerCase(Locale.ROOT);
+                    String columnDefault = resultSet.getString(4);
+                    boolean identity = "YES".equals(resultSet.getString(6));
+                    // serial columns are plain integers with a sequence default in the catalog.
+                    boolean generated = identity || (columnDefault != null && columnDefault.startsWith("nextval("));
+                    String columnType = generated && dataType.equals("integer") ? "serial" : dataType.split(" ")[0];
+                    String definition = definition(dataType, resultSet.getObject(7), resultSet.getObject(8),
+                            resultSet.getObject(9), "NO".equals(resultSet.getString(5)), identity, columnDefault);
+                    columnsByTable.computeIfAbsent(tableName, x -> new ArrayList<>())
+                            .add(new Column(resultSet.getString(2), columnType, definition));
+                }
+            }
+        }
+        return columnsByTable;
+    }
+
+    private static Map<String, Map<String, Key>> readKeys(Connection connection, String schemaName) throws SQLException {
+        Map<String, Map<String, Key>> keysByTable = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(KEYS_QUERY)) {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, schemaName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String constraintType = resultSet.getString(3);
+                    Key key = keysByTable.computeIfAbsent(resultSet.getString(1), x -> new LinkedHashMap<>())
+                            .computeIfAbsent(resultSet.getString(2), x -> new Key(constraintType));
+                    String columnName = resultSet.getString(4);
+                    // Constraint names only have to be unique per table, so the referenced table may show up
+                    // once for every table having a key with the same name.
+                    if (!key.columnNames.contains(columnName)) {
+                        key.columnNames.add(columnName);
+                    }
+                    if (key.referencedTableName == null) {
+                        key.referencedTableName = resultSet.getString(5);
+                    }
+                }
+            }
+        }
+        return keysByTable;
+    }
+
+    private static Map<String, Map<String, IndexModel>> readIndexes(Connection connection, String schemaName) throws SQLException {
+        Map<String, Map<String, IndexModel>> indexesByTable = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(INDEXES_QUERY)) {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, schemaName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    boolean unique = resultSet.getBoolean(3);
+                    indexesByTable.computeIfAbsent(resultSet.getString(1), x -> new LinkedHashMap<>())
+                            .computeIfAbsent(resultSet.getString(2), x -> new IndexModel(x, new ArrayList<>(), unique))
+                            .getColumnNames().add(resultSet.getString(4));
+                }
+            }
+        }
+        return indexesByTable;
+    }
+
+    // The column definition in the normalized form of the SqlTokenizer, used for the definition hash of the table.
+    private static String definition(String dataType, Object maximumLength, Object precision, Object scale,
+                                     boolean notNull, boolean identity, String columnDefault) {
+        StringBuilder definition = new StringBuilder(dataType);
+        if (maximumLength != null) {
+            definition.append('(').append(maximumLength).append(')');
+        }
+        else if (dataType.equals("numeric") && precision != null) {
+            definition.append('(').append(precision).append(',').append(scale).append(')');
+        }
+        if (notNull) {
+            definition.append(" NOT NULL");
+        }
+        if (identity) {
+            definition.append(" GENERATED BY DEFAULT AS IDENTITY");
+        }
+        else if (columnDefault != null) {
+            definition.append(" DEFAULT ").append(columnDefault);
+        }
+        return definition.toString();
+    }
+}
@@ -3,6 +3,7 @@ package com.ahi.model_generator_from_postgres;
 import com.google.common.base.CaseFormat;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -16,7 +17,12 @@ public class ClassModel {
     private String upperCamelCaseNameInPlural;
     private String lowerCamelCaseNameInPlural;
     private String lowerHyphenNameInPlural;
+    private String definitionHash;
+    private List<String> primaryKeyColumns = Collections.emptyList();
     private List<ModelProperty> properties = new ArrayList<>();
+    private List<ModelProperty> inheritedProperties = new ArrayList<>(); // declared by the extended class (id, name, label)
+    private List<IndexModel> indexes = new ArrayList<>();
+    private List<IndexModel> uniqueConstraints = new ArrayList<>();
     private Set<String> javaImportLines = new HashSet<>();
     private Set<String> jsImportLines = new HashSet<>();
 
@@ -38,6 +44,19 @@ public class ClassModel {
         this.lowerHyphenNameInPlural = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_HYPHEN, upperCamelCaseNameInPlural);
     }
 
+    // With the names already converted, e.g. by a previous run (see SchemaCache).
+    public ClassModel(String upperCamelCaseName, String lowerUnderscoreName, String lowerCamelCaseName,
+                      String lowerHyphenName, String upperCamelCaseNameInPlural, String lowerCamelCaseNameInPlural,
+                      String lowerHyphenNameInPlural) {
+        this.upperCamelCaseName = upperCamelCaseName;
+        this.lowerUnderscoreName = lowerUnderscoreName;
+        this.lowerCamelCaseName = lowerCamelCaseName;
+        this.lowerHyphenName = lowerHyphenName;
+        this.upperCamelCaseNameInPlural = upperCamelCaseNameInPlural;
+        this.lowerCamelCaseNameInPlural = lowerCamelCaseNameInPlural;
+        this.lowerHyphenNameInPlural = lowerHyphenNameInPlural;
+    }
+
     public String getLowerUnderscoreName() {
         return lowerUnderscoreName;
     }
@@ -78,6 +97,10 @@ public class ClassModel {
         this.extendedClass = extendedClass;
     }
 
+    public String getExtendedDtoClass() {
+        return extendedClass == null ? null : extendedClass.replaceAll("Entity", "Dto");
+    }
+
     public String getUpperCamelCaseName() {
         return upperCamelCaseName;
     }
@@ -126,6 +149,22 @@ public class ClassModel {
         this.lowerHyphenNameInPlural = lowerHyphenNameInPlural;
     }
 
+    public String getDefinitionHash() {
+        return definitionHash;
+    }
+
+    public void setDefinitionHash(String definitionHash) {
+        this.definitionHash = definitionHash;
+    }
+
+    public List<String> getPrimaryKeyColumns() {
+        return primaryKeyColumns;
+    }
+
+    public void setPrimaryKeyColumns(List<String> primaryKeyColumns) {
+        this.primaryKeyColumns = primaryKeyColumns;
+    }
+
     public List<ModelProperty> getProperties() {
         return properties;
     }
@@ -141,4 +180,70 @@ public class ClassModel {
     public void removeProperty(String propertyName) {
         properties.removeIf(x -> x.getLowerCamelCaseName().equals(propertyName));
     }
+
+    public List<ModelProperty> getInheritedProperties() {
+        return inheritedProperties;
+    }
+
+    public void setInheritedProperties(List<ModelProperty> inheritedProperties) {
+        this.inheritedProperties = inheritedProperties;
+    }
+
+    // Moves the property to the inherited ones.
+    public void inheritProperty(ModelProperty modelProperty) {
+        properties.remove(modelProperty);
+        inheritedProperties.add(modelProperty);
+    }
+
+    public List<IndexModel> getIndexes() {
+        return indexes;
+    }
+
+    public void setIndexes(List<IndexModel> indexes) {
+        this.indexes = indexes;
+    }
+
+    public void addIndex(IndexModel index) {
+        indexes.add(index);
+    }
+
+    public List<IndexModel> getUniqueConstraints() {
+        return uniqueConstraints;
+    }
+
+    public void setUniqueConstraints(List<IndexModel> uniqueConstraints) {
+        this.uniqueConstraints = uniqueConstraints;
+    }
+
+    public void addUniqueConstraint(IndexModel uniqueConstraint) {
+        uniqueConstraints.add(uniqueConstraint);
+    }
+
+    // Reference columns not being the first column of the primary key, a unique constraint or an index,
+    // so joining on them (or deleting a referenced row) has to scan the table.
+    public List<String> getUnindexedReferenceColumns() {
+        List<String> unindexedReferenceColumns = new ArrayList<>();
+        for (ModelProperty property : properties) {
+            String columnName = property.getLowerUnderscoreName();
+            boolean indexed = !primaryKeyColumns.isEmpty() && primaryKeyColumns.get(0).equals(columnName)
+                    || indexes.stream().anyMatch(x -> x.getColumnNames().get(0).equals(columnName))
+                    || uniqueConstraints.stream().anyMatch(x -> x.getColumnNames().get(0).equals(columnName));
+            if (property.isReference() && !indexed) {
+                unindexedReferenceColumns.add(columnName);
+            }
+        }
+        return unindexedReferenceColumns;
+    }
+
+    // Called once parsing of the table is finished, the emitters running in parallel only read the model.
+    public ClassModel freeze() {
+        primaryKeyColumns = Collections.unmodifiableList(primaryKeyColumns);
+        properties = Collections.unmodifiableList(properties);
+        inheritedProperties = Collections.unmodifiableList(inheritedProperties);
+        indexes = Collections.unmodifiableList(indexes);
+        uniqueConstraints = Collections.unmodifiableList(uniqueConstraints);
+        javaImportLines = Collections.unmodifiableSet(javaImportLines);
+        jsImportLines = Collections.unmodifiableSet(jsImportLines);
+        return this;
+    }
 }
@@ -0,0 +1,437 @@
+package com.ahi.model_generator_from_postgres;
+
+import com.google.common.base.CaseFormat;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Builds the ClassModel of each table from the schema events. As constraints and indexes may be defined after the
+// table (ALTER TABLE, CREATE INDEX), and migration scripts may change the table later on, the columns and keys are
+// collected first and the models are built and handed over, frozen, once the whole schema is read.
+// Changes which can not be applied (e.g. a column added twice, or dropped from a table that does not exist) are
+// collected as conflicts, and no model is handed over at all if there are any.
+public class ClassModelBuilder implements SchemaListener {
+
+    // The last default or identity clause of a column definition is the one in effect (see onColumnDefaultChanged and
+    // onColumnIdentityChanged). An identity names its sequence in the SEQUENCE NAME option, if at all.
+    private static final Pattern DEFAULT_CLAUSE = Pattern.compile("(?i)\\b(?:(drop )?default( nextval\\('([^']+)')?"
+            + "|generated (always|by default) as identity(\\s*\\([^)]*?\\bsequence name ([^\\s)]+))?|(drop identity))");
+
+    private static class Column {
+        private String type;
+        private String definition;
+
+        private Column(String type, String definition) {
+            this.type = type;
+            this.definition = definition;
+        }
+    }
+
+    private static class Table {
+        private final Map<String, Column> columns = new LinkedHashMap<>();
+        private List<String> primaryKeyColumnNames = new ArrayList<>();
+        private final List<List<String>> foreignKeyColumnNames = new ArrayList<>();
+        private final List<String> referencedTableNames = new ArrayList<>();
+        private final List<IndexModel> uniqueConstraints = new ArrayList<>();
+        private final List<IndexModel> indexes = new ArrayList<>();
+    }
+
+    private final Consumer<ClassModel> classModelConsumer;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+    private final List<String> conflicts = new ArrayList<>();
+    private Table currentTable;
+    private String skippedTableName; // of a CREATE TABLE IF NOT EXISTS of an existing table
+
+    public ClassModelBuilder(Consumer<ClassModel> classModelConsumer) {
+        this.classModelConsumer = classModelConsumer;
+    }
+
+    public List<String> getConflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    @Override
+    public void onTable(String tableName) {
+        onTable(tableName, false);
+    }
+
+    @Override
+    public void onTable(String tableName, boolean ifNotExists) {
+        if (tables.containsKey(tableName)) {
+            if (ifNotExists) {
+                currentTable = null;
+                skippedTableName = tableName;
+                return;
+            }
+            conflicts.add("CREATE TABLE " + tableName + ": the table exists already");
+        }
+        currentTable = new Table();
+        tables.put(tableName, currentTable);
+    }
+
+    @Override
+    public void onColumn(String tableName, String columnName, String columnType, String definition) {
+        if (currentTable != null) {
+            currentTable.columns.put(columnName, new Column(columnType, definition));
+        }
+    }
+
+    @Override
+    public void onTableEnd(String tableName) {
+        currentTable = null;
+        skippedTableName = null;
+    }
+
+    @Override
+    public void onPrimaryKey(String tableName, List<String> columnNames) {
+        Table table = table(tableName);
+        if (table != null) {
+            table.primaryKeyColumnNames = new ArrayList<>(columnNames);
+        }
+    }
+
+    @Override
+    public void onForeignKey(String tableName, List<String> columnNames, String referencedTableName) {
+        Table table = table(tableName);
+        if (table != null) {
+            // Applied at the end, a table constraint may precede the definition of its columns.
+            table.foreignKeyColumnNames.add(new ArrayList<>(columnNames));
+            table.referencedTableNames.add(referencedTableName);
+        }
+    }
+
+    @Override
+    public void onUniqueConstraint(String tableName, String constraintName, List<String> columnNames) {
+        Table table = table(tableName);
+        if (table != null) {
+            String name = constraintName != null ? constraintName : tableName + "_" + String.join("_", columnNames) + "_key";
+            table.uniqueConstraints.add(new IndexModel(name, new ArrayList<>(columnNames), true));
+        }
+    }
+
+    @Override
+    public void onIndex(String tableName, String indexName, List<String> columnNames, boolean unique) {
+        Table table = table(tableName);
+        if (table != null) {
+            String name = indexName != null ? indexName : tableName + "_" + String.join("_", columnNames) + "_idx";
+            table.indexes.add(new IndexModel(name, new ArrayList<>(columnNames), unique));
+        }
+    }
+
+    @Override
+    public void onColumnAdded(String tableName, String columnName, String columnType, String definition, boolean optional) {
+        Table table = alteredTable(tableName, "ADD COLUMN " + columnName, optional);
+        if (table == null) {
+            return;
+        }
+        if (table.columns.containsKey(columnName)) {
+            if (!optional) {
+                conflicts.add("ALTER TABLE " + tableName + " ADD COLUMN " + columnName + ": the column exists already");
+            }
+            return;
+        }
+        table.columns.put(columnName, new Column(columnType, definition));
+    }
+
+    @Override
+    public void onColumnDropped(String tableName, String columnName, boolean optional) {
+        Table table = alteredColumnTable(tableName, columnName, "DROP COLUMN " + columnName, optional);
+        if (table != null) {
+            // The keys and indexes containing the column are dropped with it (see onSchemaEnd).
+            table.columns.remove(columnName);
+        }
+    }
+
+    @Override
+    public void onColumnTypeChanged(String tableName, String columnName, String columnType, String typeDefinition, boolean optional) {
+        Table table = alteredColumnTable(tableName, columnName, "ALTER COLUMN " + columnName, optional);
+        if (table != null) {
+            Column column = table.columns.get(columnName);
+            column.type = columnType;
+            column.definition = column.definition + " TYPE " + typeDefinition;
+        }
+    }
+
+    @Override
+    public void onColumnDefaultChanged(String tableName, String columnName, String defaultExpression, boolean optional) {
+        Table table = alteredColumnTable(tableName, columnName, "ALTER COLUMN " + columnName, optional);
+        if (table != null) {
+            Column column = table.columns.get(columnName);
+            column.definition = column.definition + (defaultExpression != null ? " SET DEFAULT " + defaultExpression : " DROP DEFAULT");
+        }
+    }
+
+    @Override
+    public void onColumnIdentityChanged(String tableName, String columnName, String identityDefinition, boolean optional) {
+        Table table = alteredColumnTable(tableName, columnName, "ALTER COLUMN " + columnName, optional);
+        if (table != null) {
+            Column column = table.columns.get(columnName);
+            column.definition = column.definition + (identityDefinition != null ? " ADD " + identityDefinition : " DROP IDENTITY");
+        }
+    }
+
+    @Override
+    public void onColumnRenamed(String tableName, String columnName, String newColumnName, boolean optional) {
+        Table table = alteredColumnTable(tableName, columnName, "RENAME COLUMN " + columnName, optional);
+        if (table == null) {
+            return;
+        }
+        if (table.columns.containsKey(newColumnName)) {
+            conflicts.add("ALTER TABLE " + tableName + " RENAME COLUMN " + columnName + " TO " + newColumnName
+                    + ": the column exists already");
+            return;
+        }
+        Map<String, Column> columns = new LinkedHashMap<>();
+        table.columns.forEach((name, column) -> columns.put(name.equals(columnName) ? newColumnName : name, column));
+        table.columns.clear();
+        table.columns.putAll(columns);
+        table.primaryKeyColumnNames.replaceAll(x -> x.equals(columnName) ? newColumnName : x);
+        table.foreignKeyColumnNames.forEach(x -> x.replaceAll(y -> y.equals(columnName) ? newColumnName : y));
+        table.uniqueConstraints.forEach(x -> x.getColumnNames().replaceAll(y -> y.equals(columnName) ? newColumnName : y));
+        table.indexes.forEach(x -> x.getColumnNames().replaceAll(y -> y.equals(columnName) ? newColumnName : y));
+    }
+
+    @Override
+    public void onTableRenamed(String tableName, String newTableName, boolean optional) {
+        Table table = alteredTable(tableName, "RENAME TO " + newTableName, optional);
+        if (table == null) {
+            return;
+        }
+        if (tables.containsKey(newTableName)) {
+            conflicts.add("ALTER TABLE " + tableName + " RENAME TO " + newTableName + ": the table exists already");
+            return;
+        }
+        // In the order the tables were created.
+        Map<String, Table> renamedTables = new LinkedHashMap<>();
+        tables.forEach((name, x) -> renamedTables.put(name.equals(tableName) ? newTableName : name, x));
+        tables.clear();
+        tables.putAll(renamedTables);
+        tables.values().forEach(x -> x.referencedTableNames.replaceAll(y -> y.equals(tableName) ? newTableName : y));
+    }
+
+    @Override
+    public void onTableDropped(String tableName, boolean optional) {
+        if (tables.remove(tableName) == null && !optional) {
+            conflicts.add("DROP TABLE " + tableName + ": the table does not exist");
+        }
+    }
+
+    // The table of a constraint or index event, unless it belongs to a CREATE TABLE which is left out.
+    private Table table(String tableName) {
+        return tableName.equals(skippedTableName) ? null : tables.get(tableName);
+    }
+
+    private Table alteredTable(String tableName, String change, boolean optional) {
+        Table table = tables.get(tableName);
+        if (table == null && !optional) {
+            conflicts.add("ALTER TABLE " + tableName + " " + change + ": the table does not exist");
+        }
+        return table;
+    }
+
+    private Table alteredColumnTable(String tableName, String columnName, String change, boolean optional) {
+        Table table = alteredTable(tableName, change, optional);
+        if (table == null || table.columns.containsKey(columnName)) {
+            return table;
+        }
+        if (!optional) {
+            conflicts.add("ALTER TABLE " + tableName + " " + change + ": the column does not exist");
+        }
+        return null;
+    }
+
+    @Override
+    public void onSchemaEnd() {
+        if (!conflicts.isEmpty()) {
+            tables.clear();
+            return;
+        }
+        for (Map.Entry<String, Table> entry : tables.entrySet()) {
+            String tableName = entry.getKey();
+            Table table = entry.getValue();
+            String dtoClassName = CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, tableName);
+            ClassModel classModel = new ClassModel(dtoClassName, tableName);
+            StringBuilder normalizedDefinition = new StringBuilder(tableName).append('\n');
+            for (Map.Entry<String, Column> column : table.columns.entrySet()) {
+                retrieveAndSaveProperty(classModel, column.getKey(), column.getValue().type);
+                retrieveAndSaveSequence(classModel, tableName, column.getValue().type, column.getValue().definition);
+                normalizedDefinition.append(column.getKey()).append(' ').append(column.getValue().definition).append('\n');
+            }
+            // Keys and indexes of dropped columns were dropped with them.
+            Set<String> columnNames = table.columns.keySet();
+            if (!table.primaryKeyColumnNames.isEmpty() && columnNames.containsAll(table.primaryKeyColumnNames)) {
+                classModel.setPrimaryKeyColumns(table.primaryKeyColumnNames);
+                normalizedDefinition.append("PRIMARY KEY (").append(String.join(",", table.primaryKeyColumnNames)).append(")\n");
+            }
+            for (int i = 0; i < table.foreignKeyColumnNames.size(); i++) {
+                List<String> foreignKeyColumnNames = table.foreignKeyColumnNames.get(i);
+                if (!columnNames.containsAll(foreignKeyColumnNames)) {
+                    continue;
+                }
+                // A composite foreign key has no single property to turn into a reference.
+                if (foreignKeyColumnNames.size() == 1) {
+                    applyForeignKey(classModel, foreignKeyColumnNames.get(0), table.referencedTableNames.get(i));
+                }
+                normalizedDefinition.append("FOREIGN KEY (").append(String.join(",", foreignKeyColumnNames))
+                        .append(") REFERENCES ").append(table.referencedTableNames.get(i)).append('\n');
+            }
+            for (IndexModel uniqueConstraint : table.uniqueConstraints) {
+                if (columnNames.containsAll(uniqueConstraint.getColumnNames())) {
+                    classModel.addUniqueConstraint(uniqueConstraint);
+                    normalizedDefinition.append("CONSTRAINT ").append(uniqueConstraint.getName()).append(" UNIQUE (")
+                            .append(String.join(",", uniqueConstraint.getColumnNames())).append(")\n");
+                }
+            }
+            for (IndexModel index : table.indexes) {
+                if (columnNames.containsAll(index.getColumnNames())) {
+                    classModel.addIndex(index);
+                    normalizedDefinition.append(index.isUnique() ? "UNIQUE INDEX " : "INDEX ").append(index.getName())
+                            .append(" (").append(String.join(",", index.getColumnNames())).append(")\n");
+                }
+            }
+            classModel.setDefinitionHash(Hashing.sha256()
+                    .hashString(normalizedDefinition, StandardCharsets.UTF_8).toString());
+            addReferenceImportLines(classModel);
+            resolveExtendedClass(classModel);
+            classModelConsumer.accept(classModel.freeze());
+        }
+        tables.clear();
+    }
+
+    static void retrieveAndSaveProperty(ClassModel currentClassModel, String columnName, String columnType) {
+        String upperCamelCaseName = CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, columnName);
+        boolean isReferenceColumn = upperCamelCaseName.length() > 2 && upperCamelCaseName.endsWith("Id");
+        if (isReferenceColumn) {
+            upperCamelCaseName = upperCamelCaseName.substring(0, upperCamelCaseName.length() - 2);
+        }
+        String lowerCamelCaseName = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_CAMEL, upperCamelCaseName);
+        String javaDtoType;
+        String javaEntityType;
+        String jsType;
+        if (isReferenceColumn) {
+            javaDtoType = upperCamelCaseName;
+            javaEntityType = upperCamelCaseName + "Entity";
+            jsType = upperCamelCaseName;
+        }
+        else {
+            switch (columnType.toLowerCase()) {
+                case "serial":
+                    javaDtoType = "int";
+                    jsType = "number";
+                    break;
+                case "text":
+                    javaDtoType = "String";
+                    jsType = "string";
+                    break;
+                case "boolean":
+                    javaDtoType = "Boolean";
+                    jsType = "boolean";
+                    break;
+                case "date":
+                    javaDtoType = "LocalDate";
+                    jsType = "Date";
+                    currentClassModel.addJavaImportLine("import java.time.LocalDate;");
+                    break;
+                case "timestamp":
+                    javaDtoType = "LocalDateTime";
+                    jsType = "Date";
+                    currentClassModel.addJavaImportLine("import java.time.LocalDateTime;");
+                    break;
+                case "numeric":
+                    javaDtoType = "BigDecimal";
+                    currentClassModel.addJavaImportLine("import java.math.BigDecimal;");
+                    jsType = "number";
+                    break;
+                default:
+                    javaDtoType = "Integer";
+                    jsType = "number";
+            }
+            javaEntityType = javaDtoType;
+        }
+        ModelProperty modelProperty = new ModelProperty(lowerCamelCaseName, columnName, javaDtoType, javaEntityType, jsType, upperCamelCaseName, isReferenceColumn);
+        currentClassModel.addProperty(modelProperty);
+    }
+
+    // Serial and identity columns get the sequence named by PostgreSQL by default, a nextval default or the SEQUENCE NAME
+    // option of an identity names its own.
+    static void retrieveAndSaveSequence(ClassModel currentClassModel, String tableName, String columnType, String definition) {
+        ModelProperty modelProperty = currentClassModel.getProperties().get(currentClassModel.getProperties().size() - 1);
+        Matcher defaultClause = DEFAULT_CLAUSE.matcher(definition);
+        String sequenceName = null;
+        boolean identity = false;
+        boolean generatedAlways = false;
+        while (defaultClause.find()) {
+            identity = defaultClause.group(4) != null;
+            generatedAlways = identity && "always".equalsIgnoreCase(defaultClause.group(4));
+            sequenceName = identity ? defaultClause.group(6) : defaultClause.group(1) == null ? defaultClause.group(3) : null;
+        }
+        if (sequenceName == null && (identity || columnType.toLowerCase().endsWith("serial"))) {
+            sequenceName = tableName + "_" + modelProperty.getLowerUnderscoreName() + "_seq";
+        }
+        if (sequenceName != null) {
+            modelProperty.setSequenceName(sequenceName);
+            modelProperty.setGeneratedAlways(generatedAlways);
+        }
+    }
+
+    // A declared foreign key tells the referenced type for sure, even if the column name does not end with _id
+    // or names the role instead of the referenced table (e.g. owner_id referencing person).
+    static void applyForeignKey(ClassModel currentClassModel, String columnName, String referencedTableName) {
+        Optional<ModelProperty> property = currentClassModel.getProperties().stream()
+                .filter(x -> x.getLowerUnderscoreName().equals(columnName)).findAny();
+        if (property.isEmpty()) {
+            return;
+        }
+        String referencedClassName = CaseFormat.LOWER_UNDERSCORE.to(CaseFormat.UPPER_CAMEL, referencedTableName);
+        ModelProperty modelProperty = property.get();
+        modelProperty.setReference(true);
+        modelProperty.setJavaDtoType(referencedClassName);
+        modelProperty.setJavaEntityType(referencedClassName + "Entity");
+        modelProperty.setJsType(referencedClassName);
+    }
+
+    static void addReferenceImportLines(ClassModel currentClassModel) {
+        for (ModelProperty modelProperty : currentClassModel.getProperties()) {
+            if (modelProperty.isReference()) {
+                String lowerHyphenName = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_HYPHEN, modelProperty.getJsType());
+                currentClassModel.addJsImportLine("import { " + modelProperty.getJsType() + " } from './" + lowerHyphenName + "';");
+            }
+        }
+    }
+
+    static void resolveExtendedClass(ClassModel currentClassModel) {
+        Optional<ModelProperty> idProperty = currentClassModel.getProperties().stream()
+                .filter(x -> x.getLowerCamelCaseName().equals("id")).findAny();
+        if (idProperty.isEmpty()) {
+            return;
+        }
+        currentClassModel.setExtendedClass("BaseEntity");
+        currentClassModel.inheritProperty(idProperty.get());
+        Optional<ModelProperty> nameProperty = currentClassModel.getProperties().stream()
+                .filter(x -> x.getLowerCamelCaseName().equals("name")).findAny();
+        if (nameProperty.isPresent()) {
+            currentClassModel.setExtendedClass("BaseEntityWithName");
+            currentClassModel.inheritProperty(nameProperty.get());
+            Optional<ModelProperty> labelProperty = currentClassModel.getProperties().stream()
+                    .filter(x -> x.getLowerCamelCaseName().equals("label")).findAny();
+            if (labelProperty.isPresent()) {
+                currentClassModel.setExtendedClass("BaseEnumEntity");
+                currentClassModel.inheritProperty(labelProperty.get());
+            }
+        }
+        // Here for simplicity we add JS import line for the extended class. (e.g. import { BaseDto } from './base-dto';)
+        String extendedDtoClass = currentClassModel.getExtendedDtoClass();
+        String extendedJsFileName = CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_HYPHEN, extendedDtoClass);
+        currentClassModel.addJsImportLine("import { " + extendedDtoClass + " } from './" + extendedJsFileName + "';");
+    }
+}
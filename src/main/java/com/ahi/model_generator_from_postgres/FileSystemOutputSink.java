@@ -0,0 +1,58 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Writes the files below the root directories (e.g. backend to backendRootPath). The content is rendered into memory
+// and the file is only replaced (via a temp file and an atomic move, so with a single write) when the content
+// differs, so unchanged files keep their timestamp and a crashed run never leaves a half-written file behind.
+public class FileSystemOutputSink implements OutputSink {
+
+    private final Map<String, Path> roots;
+    private final Set<Path> createdDirectories = ConcurrentHashMap.newKeySet();
+
+    public FileSystemOutputSink(Map<String, Path> roots) {
+        this.roots = roots;
+    }
+
+    public Path resolve(String path) {
+        return resolve(roots, path);
+    }
+
+    // A path not starting with a root is taken as it is (e.g. an absolute path).
+    public static Path resolve(Map<String, Path> roots, String path) {
+        int rootEnd = path.indexOf('/');
+        Path root = rootEnd > 0 ? roots.get(path.substring(0, rootEnd)) : null;
+        return root != null ? root.resolve(path.substring(rootEnd + 1)) : Path.of(path);
+    }
+
+    @Override
+    public boolean write(String path, byte[] bytes) throws IOException {
+        Path filePath = resolve(path);
+        if (Files.exists(filePath) && Files.size(filePath) == bytes.length
+                && Arrays.equals(Files.readAllBytes(filePath), bytes)) {
+            return false;
+        }
+        Path directory = filePath.toAbsolutePath().getParent();
+        // Only added once created, as an emitter thread skipping a directory still being created would not find it.
+        if (!createdDirectories.contains(directory)) {
+            Files.createDirectories(directory);
+            createdDirectories.add(directory);
+        }
+        // Files.createTempFile would create the file readable by the owner only.
+        Path tempFile = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        try {
+            Files.write(tempFile, bytes);
+            Files.move(tempFile, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return true;
+    }
+}
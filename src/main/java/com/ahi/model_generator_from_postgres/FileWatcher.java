@@ -0,0 +1,85 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// Waits for changes of the watched files. A burst of events (e.g. an editor saving through a temp file, or a checkout
+// touching several files) is collected until the files have been quiet for the debounce period, so it results in a
+// single change.
+public class FileWatcher implements Closeable {
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Set<Path> watchedFiles = new HashSet<>();
+    private final Set<Path> directoriesWatchedEntirely = new HashSet<>();
+
+    public FileWatcher() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    public void watchFile(Path file) throws IOException {
+        Path absoluteFile = file.toAbsolutePath().normalize();
+        register(absoluteFile.getParent());
+        watchedFiles.add(absoluteFile);
+    }
+
+    public void watchDirectory(Path directory) throws IOException {
+        Path absoluteDirectory = directory.toAbsolutePath().normalize();
+        register(absoluteDirectory);
+        directoriesWatchedEntirely.add(absoluteDirectory);
+    }
+
+    private void register(Path directory) throws IOException {
+        // Files are usually replaced rather than modified in place, so creation counts as a change too.
+        WatchKey watchKey = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchedDirectories.put(watchKey, directory);
+    }
+
+    // Blocks until at least one watched file changed, and returns the changed files once they have been quiet
+    // for the given period.
+    public Set<Path> awaitChanges(long debounceMillis) throws InterruptedException {
+        Set<Path> changedFiles = new TreeSet<>();
+        while (changedFiles.isEmpty()) {
+            collectChanges(watchService.take(), changedFiles);
+        }
+        WatchKey watchKey;
+        while ((watchKey = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+            collectChanges(watchKey, changedFiles);
+        }
+        return changedFiles;
+    }
+
+    private void collectChanges(WatchKey watchKey, Set<Path> changedFiles) {
+        Path directory = watchedDirectories.get(watchKey);
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, so any file of the directory may have changed.
+                watchedFiles.stream().filter(x -> x.getParent().equals(directory)).forEach(changedFiles::add);
+                continue;
+            }
+            Path file = directory.resolve((Path) event.context());
+            if (watchedFiles.contains(file) || directoriesWatchedEntirely.contains(directory)) {
+                changedFiles.add(file);
+            }
+        }
+        watchKey.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
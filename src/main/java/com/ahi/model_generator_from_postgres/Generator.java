@@ -0,0 +1,939 @@
+package com.ahi.model_generator_from_postgres;
+
+import com.google.common.hash.Hashing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+// The generation of one schema source: the schema is read completely first, as constraints, indexes and the changes of
+// migration scripts may come after a table, then the files of the tables are written by a pool of emitter threads.
+// An instance keeps the manifest of its last run in memory, so it is
+// kept for repeated runs (the watch mode, or a build plugin generating for several modules), and only the changed
+// tables are generated again. The runs of an instance are serialized.
+public class Generator {
+
+    private static final String MANIFEST_FILE_NAME = ".model-generator.manifest";
+    private static final String SCHEMA_CACHE_FILE_NAME = ".model-generator.schema";
+    static final List<String> TEMPLATE_NAMES = List.of("jpa-entity", "java-dto", "jpa-repository", "spring-data-projection",
+            "mapstruct-mapper", "java-mapper", "spring-service", "rest-controller", "typescript-model", "angular-service",
+            "java-keyset-page", "typescript-keyset-page");
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+    // Emitters writing their own file per table, so they can run in parallel.
+    // Named for the --stats timers and the Flight Recorder events.
+    private final List<Map.Entry<String, BiConsumer<ClassModel, Map<String, Object>>>> perTableEmitters = List.of(
+            Map.entry("jpa-entity", this::createJpaEntityClass),
+            Map.entry("java-dto", this::createJavaDtoClass),
+            Map.entry("jpa-repository", this::createJpaRepositoryInterface),
+            Map.entry("projection", this::createProjectionInterface),
+            Map.entry("mapper", this::createMapper),
+            Map.entry("spring-service", this::createSpringServiceClass),
+            Map.entry("rest-controller", this::createRestControllerClass),
+            Map.entry("typescript-model", this::createTypeScriptClass),
+            Map.entry("angular-service", this::createAngularServiceClass));
+    private final String schemaSource; // SQL file path, directory or glob pattern, pg_dump archive, or JDBC URL
+    private final int threadCount;
+    private final Properties generatorProperties = new Properties();
+    private boolean deleteFilesOfDroppedTables;
+    private boolean printStats;
+    private Path statsJsonPath;
+    private Properties properties = new Properties();
+    private Manifest manifest;
+    private Manifest savedManifest; // the manifest of the last complete run of this instance
+    private Path savedManifestPath;
+    // The tables of the last parsed schema, they are frozen, so the runs for several modules can share them.
+    private List<ClassModel> lastClassModels;
+    private String lastFingerprint;
+    private SchemaFileSet.Recordings schemaFileRecordings; // null unless the unmodified files are reused
+    private OutputWriter outputWriter;
+    private RunStats runStats;
+    private Map<String, Template> templates = new HashMap<>();
+    private SharedFileEdit ngRxActionEdit;
+    private SharedFileEdit ngRxReducerEdit;
+    private SharedFileEdit ngRxEffectsEdit;
+
+    public Generator(String schemaSource, int threadCount) throws IOException {
+        this.schemaSource = schemaSource;
+        this.threadCount = Math.max(1, threadCount);
+        try (InputStream inputStream = Generator.class.getResourceAsStream("/generator.properties")) {
+            generatorProperties.load(inputStream);
+        }
+    }
+
+    public void setDeleteFilesOfDroppedTables(boolean deleteFilesOfDroppedTables) {
+        this.deleteFilesOfDroppedTables = deleteFilesOfDroppedTables;
+    }
+
+    public void setPrintStats(boolean printStats) {
+        this.printStats = printStats;
+    }
+
+    public void setStatsJsonPath(Path statsJsonPath) {
+        this.statsJsonPath = statsJsonPath;
+    }
+
+    // Keeps the events of every schema file, so the next run of this instance only tokenizes the modified files.
+    public void setReuseUnmodifiedSchemaFiles(boolean reuseUnmodifiedSchemaFiles) {
+        schemaFileRecordings = reuseUnmodifiedSchemaFiles ? new SchemaFileSet.Recordings() : null;
+    }
+
+    public String getVersion() {
+        return generatorProperties.getProperty("version");
+    }
+
+    // Generates the files of the tables into the root paths of the given configuration, and returns whether the run
+    // was complete.
+    public boolean generate(Properties config) {
+        return generate(config, new FileSystemOutputSink(outputRoots(config)));
+    }
+
+    // Only the files written to the root paths are kept for the next run, with any other sink every table is generated,
+    // and the manifest is only read for the tables the NgRx store files already have. The sink is not closed.
+    public synchronized boolean generate(Properties config, OutputSink outputSink) {
+        runStats = new RunStats();
+        try {
+            prepareEmitters(config, new OutputWriter(outputSink));
+        } catch (IOException e) {
+            System.out.println("An error occurred.");
+            e.printStackTrace();
+            return false;
+        }
+        boolean incremental = outputSink instanceof FileSystemOutputSink;
+        String ngRxStorePath = "frontend/"
+                + properties.getProperty("ngrxStorePath", "modules/room-rack/store").replace('\\', '/');
+        ngRxActionEdit = new SharedFileEdit(ngRxStorePath + "/room-rack.action.ts", resolve(ngRxStorePath + "/room-rack.action.ts"));
+        ngRxReducerEdit = new SharedFileEdit(ngRxStorePath + "/room-rack.reducer.ts", resolve(ngRxStorePath + "/room-rack.reducer.ts"));
+        ngRxEffectsEdit = new SharedFileEdit(ngRxStorePath + "/room-rack.effects.ts", resolve(ngRxStorePath + "/room-rack.effects.ts"));
+        Path manifestPath = Path.of(properties.getProperty("backendRootPath")).resolve(MANIFEST_FILE_NAME);
+        // The instance may generate into another backend than at the last run.
+        Manifest previousManifest = manifestPath.equals(savedManifestPath) ? savedManifest : null;
+        // Without a readable manifest the tables already added to the NgRx store files are not known, so the files are
+        // left as they are rather than getting the tables a second time.
+        boolean editNgRxStore = true;
+        if (previousManifest == null) {
+            try {
+                previousManifest = Manifest.load(manifestPath);
+            } catch (IOException e) {
+                System.out.println("Could not read " + manifestPath + " (" + e.getMessage() + "), every table will be "
+                        + "generated, and the NgRx store files are not edited: add the tables new to them by hand.");
+                previousManifest = new Manifest(null, null);
+                editNgRxStore = false;
+            }
+        }
+        // The NgRx store files are always edited from the ones in the frontend root path, so the manifest written with
+        // them tells which tables they already have, whatever the sink. With another sink it is only read, and every
+        // table is generated.
+        Manifest ngRxStoreManifest = previousManifest;
+        if (!incremental) {
+            previousManifest = new Manifest(null, null);
+        }
+        boolean previousRunIsReusable = manifest.isCompatibleWith(previousManifest);
+
+        ExecutorService emitterExecutor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> emitterTasks = new ArrayList<>();
+        List<String> sequenceDdl = new ArrayList<>();
+        List<String> unindexedReferenceColumns = new ArrayList<>();
+        boolean complete = false;
+        // After a parse error nothing is generated, and the manifest is left as it is for the next run.
+        List<ClassModel> classModels = parse();
+        boolean parsed = classModels != null;
+        if (!parsed) {
+            classModels = List.of();
+        }
+        try {
+            long phaseStartTime;
+            for (ClassModel snapshot : classModels) {
+                String tableName = snapshot.getLowerUnderscoreName();
+                // E.g. CREATE TABLE x (), or a table whose columns were all dropped: there is no id for an entity.
+                if (snapshot.getProperties().isEmpty() && snapshot.getExtendedClass() == null) {
+                    System.out.println("Table " + tableName + " has no columns, no files are generated for it.");
+                    continue;
+                }
+                RunStats.TableEvent tableEvent = new RunStats.TableEvent();
+                tableEvent.begin();
+                tableEvent.tableName = tableName;
+                addSequenceDdl(snapshot, sequenceDdl);
+                for (String columnName : snapshot.getUnindexedReferenceColumns()) {
+                    unindexedReferenceColumns.add(tableName + "." + columnName);
+                }
+                // The code in the store files stays as it is, so the manifest keeps describing it.
+                String ngRxStyle = ngRxStyle(snapshot);
+                String previousNgRxStyle = ngRxStoreManifest.getNgRxStyle(tableName);
+                if (previousNgRxStyle != null && !previousNgRxStyle.equals(ngRxStyle)) {
+                    System.out.println("Table " + tableName + " is in the NgRx store files as " + previousNgRxStyle
+                            + ", not as " + ngRxStyle + " as configured now; they are left as they are. To have it added"
+                            + " again, remove it from the store files and its lines from " + manifestPath + ".");
+                    ngRxStyle = previousNgRxStyle;
+                }
+                if (previousRunIsReusable && snapshot.getDefinitionHash().equals(previousManifest.getHash(tableName))) {
+                    manifest.copyTable(tableName, previousManifest);
+                    outputWriter.skip(manifest.getFiles(tableName).size());
+                    runStats.countTable(snapshot, false);
+                    tableEvent.commit();
+                    continue;
+                }
+                runStats.countTable(snapshot, true);
+                manifest.putTable(tableName, snapshot.getDefinitionHash());
+                phaseStartTime = runStats.start();
+                Map<String, Object> templateContext = TemplateContext.of(snapshot, properties);
+                runStats.addPhase("template context", phaseStartTime);
+                for (Map.Entry<String, BiConsumer<ClassModel, Map<String, Object>>> emitter : perTableEmitters) {
+                    emitterTasks.add(emitterExecutor.submit(() -> {
+                        RunStats.EmitterEvent emitterEvent = new RunStats.EmitterEvent();
+                        emitterEvent.begin();
+                        long emitterStartTime = runStats.start();
+                        emitter.getValue().accept(snapshot, templateContext);
+                        runStats.addEmitter(emitter.getKey(), emitterStartTime);
+                        emitterEvent.tableName = tableName;
+                        emitterEvent.emitter = emitter.getKey();
+                        emitterEvent.commit();
+                    }));
+                }
+                // The NgRx steps collect additions to files shared by every table, so they stay serialized on this thread.
+                // They only append, so they run for tables that were not generated before.
+                if (editNgRxStore && !ngRxStoreManifest.containsTable(tableName)) {
+                    phaseStartTime = runStats.start();
+                    createNgRxAction(snapshot, templateContext);
+                    createNgRxStateMemberHandlerAndSelect(snapshot, templateContext);
+                    createNgRxEffect(snapshot, templateContext);
+                    runStats.addPhase("NgRx steps", phaseStartTime);
+                }
+                manifest.putNgRxStyle(tableName, ngRxStyle);
+                tableEvent.generated = true;
+                tableEvent.commit();
+            }
+            phaseStartTime = runStats.start();
+            for (Future<?> emitterTask : emitterTasks) {
+                emitterTask.get();
+            }
+            runStats.addPhase("waiting for emitters", phaseStartTime);
+            phaseStartTime = runStats.start();
+            createSharedClasses();
+            runStats.addPhase("shared classes", phaseStartTime);
+            if (parsed) {
+                phaseStartTime = runStats.start();
+                ngRxActionEdit.apply(outputWriter);
+                ngRxReducerEdit.apply(outputWriter);
+                ngRxEffectsEdit.apply(outputWriter);
+                runStats.addPhase("NgRx store files", phaseStartTime);
+                if (incremental) {
+                    phaseStartTime = runStats.start();
+                    handleDroppedTables(previousManifest);
+                    manifest.save(manifestPath);
+                    runStats.addPhase("manifest", phaseStartTime);
+                    savedManifest = manifest;
+                    savedManifestPath = manifestPath;
+                }
+                complete = true;
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred.");
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("An error occurred.");
+            e.getCause().printStackTrace();
+        } finally {
+            if (complete) {
+                emitterExecutor.shutdown();
+            }
+            else {
+                // The emitters still running are stopped, so that none of them writes after the run has ended.
+                emitterExecutor.shutdownNow();
+                awaitTermination(emitterExecutor);
+            }
+        }
+        runStats.finish();
+        if (complete) {
+            long tableCount = runStats.getTableCount();
+            long generatedTableCount = runStats.getGeneratedTableCount();
+            System.out.println("Generated " + generatedTableCount + " of " + tableCount + " tables ("
+                    + (tableCount - generatedTableCount) + " unchanged) in " + runStats.getWallClockMillis() + " ms using "
+                    + threadCount + " emitter thread(s).");
+            // Summed over the emitter threads; contention makes it larger than a single-threaded run would take.
+            System.out.println("Emitter time summed over the threads: " + runStats.getEmitterMillis()
+                    + " ms, wall-clock time of the whole run: " + runStats.getWallClockMillis() + " ms.");
+        }
+        else {
+            System.out.println("The generation failed after " + runStats.getWallClockMillis() + " ms, the files written"
+                    + " so far are kept, and the manifest is left as it was.");
+        }
+        System.out.println(outputWriter.getSummary());
+        if (printStats) {
+            System.out.println(runStats.getSummary(outputWriter));
+        }
+        if (statsJsonPath != null) {
+            try {
+                runStats.writeJson(statsJsonPath, outputWriter);
+            } catch (IOException e) {
+                System.out.println("Could not write " + statsJsonPath + ".");
+            }
+        }
+        if (!sequenceDdl.isEmpty()) {
+            System.out.println("The sequences have to be altered to match the allocation size of the entities:");
+            sequenceDdl.forEach(System.out::println);
+        }
+        // PostgreSQL does not index the referencing side of a foreign key by itself.
+        if (!unindexedReferenceColumns.isEmpty()) {
+            System.out.println("Reference columns without an index (joins and lookups by them scan the table):");
+            unindexedReferenceColumns.forEach(x -> System.out.println("    " + x));
+        }
+        // Without them the cache annotations of the enum tables are silently ignored.
+        if (TemplateContext.isEnumCacheEnabled(properties)
+                && classModels.stream().anyMatch(x -> "BaseEnumEntity".equals(x.getExtendedClass()))) {
+            System.out.println("The cached enum tables need @EnableCaching, a Spring cache provider and a Hibernate second-level cache");
+            System.out.println("(or enumCache = false):");
+            System.out.println("    spring.jpa.properties.hibernate.cache.use_second_level_cache=true");
+            System.out.println("    spring.jpa.properties.hibernate.cache.use_query_cache=true");
+            System.out.println("    spring.jpa.properties.hibernate.cache.region.factory_class=jcache (with hibernate-jcache and e.g. Ehcache)");
+        }
+        // The chunks of the bulk endpoints are only sent as JDBC batches with these Hibernate settings.
+        if (Boolean.parseBoolean(properties.getProperty("bulkWrites", "false"))) {
+            String chunkSize = properties.getProperty("bulkWriteChunkSize", "50");
+            System.out.println("The bulk endpoints need JDBC batching in application.properties:");
+            System.out.println("    spring.jpa.properties.hibernate.jdbc.batch_size=" + chunkSize);
+            System.out.println("    spring.jpa.properties.hibernate.order_inserts=true");
+            System.out.println("    spring.jpa.properties.hibernate.order_updates=true");
+            if (!Boolean.parseBoolean(properties.getProperty("sequenceIds", "false"))) {
+                System.out.println("    (inserts into tables with identity/serial ids are not batched without sequenceIds = true)");
+            }
+        }
+        return complete;
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.out.println("The emitter threads did not stop within a minute.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The pooled sequence generator of Hibernate expects the sequence to be incremented by the allocation size.
+    private void addSequenceDdl(ClassModel currentClassModel, List<String> sequenceDdl) {
+        if (!Boolean.parseBoolean(properties.getProperty("printSequenceDdl", "false"))) {
+            return;
+        }
+        ModelProperty sequenceIdProperty = TemplateContext.sequenceIdProperty(currentClassModel, properties);
+        if (sequenceIdProperty == null) {
+            return;
+        }
+        if (sequenceIdProperty.isGeneratedAlways()) {
+            sequenceDdl.add("ALTER TABLE " + currentClassModel.getLowerUnderscoreName() + " ALTER COLUMN "
+                    + sequenceIdProperty.getLowerUnderscoreName() + " SET GENERATED BY DEFAULT;");
+        }
+        sequenceDdl.add("ALTER SEQUENCE " + sequenceIdProperty.getSequenceName() + " INCREMENT BY "
+                + properties.getProperty("sequenceAllocationSize", "50") + ";");
+    }
+
+    // Lets the emitters run outside of generate(), e.g. from the benchmarks.
+    void prepareEmitters(Properties config, OutputWriter writer) throws IOException {
+        properties = config;
+        templates = new HashMap<>();
+        for (String templateName : TEMPLATE_NAMES) {
+            templates.put(templateName, Template.load(templateName, properties.getProperty("templatesPath")));
+        }
+        manifest = new Manifest(generatorProperties.getProperty("version"), configHash());
+        outputWriter = writer;
+    }
+
+    // The directories the paths of the output sink are relative to.
+    static Map<String, Path> outputRoots(Properties config) {
+        return Map.of("backend", Path.of(config.getProperty("backendRootPath")),
+                "frontend", Path.of(config.getProperty("frontendRootPath")));
+    }
+
+    private Path resolve(String path) {
+        return FileSystemOutputSink.resolve(outputRoots(properties), path);
+    }
+
+    // Overridden templates change the output just like the configuration does.
+    private String configHash() {
+        StringBuilder config = new StringBuilder(new TreeMap<>(properties).toString());
+        for (String templateName : TEMPLATE_NAMES) {
+            config.append(templates.get(templateName).getSource());
+        }
+        return Hashing.sha256().hashString(config, StandardCharsets.UTF_8).toString();
+    }
+
+    private void handleDroppedTables(Manifest previousManifest) throws IOException {
+        for (Map.Entry<String, Set<String>> droppedTable : previousManifest.getTablesMissingFrom(manifest).entrySet()) {
+            System.out.println("Table " + droppedTable.getKey() + " was dropped, its generated files:");
+            for (String file : droppedTable.getValue()) {
+                Path filePath = resolve(file);
+                if (deleteFilesOfDroppedTables && Files.deleteIfExists(filePath)) {
+                    System.out.println("    " + filePath + " (deleted)");
+                }
+                else {
+                    System.out.println("    " + filePath);
+                }
+            }
+        }
+    }
+
+    // The tables of the whole schema, null if it could not be read or its changes conflict.
+    private List<ClassModel> parse() {
+        List<ClassModel> classModels = new ArrayList<>();
+        ClassModelBuilder classModelBuilder = new ClassModelBuilder(classModels::add);
+        long parseStartTime = runStats.start();
+        try {
+            if (schemaSource.startsWith("jdbc:")) {
+                Properties connectionProperties = new Properties();
+                connectionProperties.setProperty("user", properties.getProperty("jdbcUser", ""));
+                connectionProperties.setProperty("password", properties.getProperty("jdbcPassword", ""));
+                CatalogIntrospector.introspect(schemaSource, connectionProperties,
+                        properties.getProperty("jdbcSchema", "public"), classModelBuilder);
+            }
+            else if (isSchemaCacheEnabled()) {
+                List<Path> schemaFiles = schemaFiles();
+                Path schemaCachePath = Path.of(properties.getProperty("backendRootPath")).resolve(SCHEMA_CACHE_FILE_NAME);
+                String fingerprint = SchemaCache.fingerprint(schemaFiles, generatorProperties.getProperty("version"));
+                List<ClassModel> cachedClassModels = fingerprint.equals(lastFingerprint) ? lastClassModels : null;
+                long cacheStartTime = runStats.start();
+                if (cachedClassModels == null) {
+                    try {
+                        cachedClassModels = SchemaCache.read(schemaCachePath, fingerprint);
+                    } catch (IOException e) {
+                        System.out.println("Could not read " + schemaCachePath + ", the schema will be parsed.");
+                    }
+                }
+                runStats.addPhase("schema cache read", cacheStartTime);
+                if (cachedClassModels != null) {
+                    classModels.addAll(cachedClassModels);
+                }
+                else {
+                    SchemaFileSet.parse(schemaFiles, threadCount, classModelBuilder, schemaFileRecordings);
+                    cacheStartTime = runStats.start();
+                    try {
+                        if (classModelBuilder.getConflicts().isEmpty()) {
+                            SchemaCache.write(schemaCachePath, fingerprint, classModels);
+                        }
+                    } catch (IOException e) {
+                        System.out.println("Could not write " + schemaCachePath + ", the schema will be parsed again next time.");
+                    }
+                    runStats.addPhase("schema cache write", cacheStartTime);
+                }
+                if (classModelBuilder.getConflicts().isEmpty()) {
+                    lastClassModels = cachedClassModels != null ? cachedClassModels : classModels;
+                    lastFingerprint = fingerprint;
+                }
+            }
+            else {
+                SchemaFileSet.parse(schemaFiles(), threadCount, classModelBuilder, schemaFileRecordings);
+            }
+            if (!classModelBuilder.getConflicts().isEmpty()) {
+                System.out.println("The changes of the schema conflict, nothing is generated.");
+                return null;
+            }
+            return classModels;
+        } catch (IOException | SQLException e) {
+            System.out.println("An error occurred.");
+            e.printStackTrace();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            runStats.addPhase("parse", parseStartTime);
+        }
+    }
+
+    private List<Path> schemaFiles() throws IOException {
+        if (!SchemaFileSet.isFileSet(schemaSource)) {
+            Path schemaFile = Path.of(schemaSource);
+            return List.of(Files.isDirectory(schemaFile) ? schemaFile.resolve(PgDumpArchive.DIRECTORY_TOC_FILE_NAME) : schemaFile);
+        }
+        List<Path> schemaFiles = SchemaFileSet.resolve(schemaSource);
+        if (schemaFiles.isEmpty()) {
+            throw new IOException("No SQL file found: " + schemaSource);
+        }
+        return schemaFiles;
+    }
+
+    // Identifies everything a run reads: the schema files, the configuration and the template overrides, so a build
+    // plugin can skip the run while it stays the same. There is none for a database, its schema can not be compared.
+    public String inputFingerprint(Properties config) throws IOException {
+        if (schemaSource.startsWith("jdbc:")) {
+            return null;
+        }
+        List<Path> inputFiles = new ArrayList<>(schemaFiles());
+        String templatesPath = config.getProperty("templatesPath");
+        if (templatesPath != null && Files.isDirectory(Path.of(templatesPath))) {
+            try (Stream<Path> templateFiles = Files.list(Path.of(templatesPath))) {
+                templateFiles.filter(Files::isRegularFile).sorted().forEach(inputFiles::add);
+            }
+        }
+        // Hashed, as the configuration may contain the database password.
+        String fingerprint = SchemaCache.fingerprint(inputFiles, getVersion() + "|" + new TreeMap<>(config));
+        return Hashing.sha256().hashString(fingerprint, StandardCharsets.UTF_8).toString();
+    }
+
+    // A file is recorded in the manifest once it is written. A failed write fails the emitter task, so the run is
+    // incomplete and the manifest is not saved.
+    private void renderTemplate(String templateName, ClassModel currentClassModel, Map<String, Object> templateContext,
+                                       String filePath) {
+        StringBuilder buffer = RENDER_BUFFERS.get();
+        buffer.setLength(0);
+        templates.get(templateName).render(templateContext, buffer);
+        try {
+            outputWriter.write(filePath, buffer.toString());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + filePath, e);
+        }
+        manifest.addFile(currentClassModel.getLowerUnderscoreName(), filePath);
+    }
+
+    void createJpaEntityClass(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("jpa-entity", currentClassModel, templateContext,
+                "backend/entity/" + currentClassModel.getUpperCamelCaseName() + "Entity.java");
+    }
+
+    // Classes used by the generated code of every table, they are written on every run but not recorded in the manifest.
+    private void createSharedClasses() throws IOException {
+        if (!Boolean.parseBoolean(properties.getProperty("keysetPagination", "false"))) {
+            return;
+        }
+        Map<String, Object> templateContext = Map.of("basePackage", properties.getProperty("backendPackage", "com.ahi.prop_man"));
+        renderSharedTemplate("java-keyset-page", templateContext, "backend/rest/dto/KeysetPage.java");
+        renderSharedTemplate("typescript-keyset-page", templateContext, "frontend/models/keyset-page.ts");
+    }
+
+    private void renderSharedTemplate(String templateName, Map<String, Object> templateContext, String filePath)
+            throws IOException {
+        StringBuilder buffer = RENDER_BUFFERS.get();
+        buffer.setLength(0);
+        templates.get(templateName).render(templateContext, buffer);
+        outputWriter.write(filePath, buffer.toString());
+    }
+
+    void createJavaDtoClass(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("java-dto", currentClassModel, templateContext,
+                "backend/rest/dto/" + currentClassModel.getUpperCamelCaseName() + ".java");
+    }
+
+    void createJpaRepositoryInterface(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("jpa-repository", currentClassModel, templateContext,
+                "backend/repository/" + currentClassModel.getUpperCamelCaseName() + "Repository.java");
+    }
+
+    void createProjectionInterface(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("spring-data-projection", currentClassModel, templateContext,
+                "backend/repository/" + currentClassModel.getUpperCamelCaseName() + "Summary.java");
+    }
+
+    // MapStruct interfaces, or with plainJavaMappers the finished classes, so no annotation processor is needed.
+    void createMapper(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        if (Boolean.parseBoolean(properties.getProperty("plainJavaMappers", "false"))) {
+            createJavaMapperClass(currentClassModel, templateContext);
+        }
+        else {
+            createMapStructMapperInterface(currentClassModel, templateContext);
+        }
+    }
+
+    void createJavaMapperClass(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("java-mapper", currentClassModel, templateContext,
+                "backend/mapper/" + currentClassModel.getUpperCamelCaseName() + "Mapper.java");
+    }
+
+    void createMapStructMapperInterface(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("mapstruct-mapper", currentClassModel, templateContext,
+                "backend/mapper/" + currentClassModel.getUpperCamelCaseName() + "Mapper.java");
+    }
+
+    void createSpringServiceClass(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("spring-service", currentClassModel, templateContext,
+                "backend/rest/service/" + currentClassModel.getUpperCamelCaseName() + "Service.java");
+    }
+
+    void createRestControllerClass(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("rest-controller", currentClassModel, templateContext,
+                "backend/rest/controller/" + currentClassModel.getUpperCamelCaseName() + "Controller.java");
+    }
+
+    void createTypeScriptClass(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("typescript-model", currentClassModel, templateContext,
+                "frontend/models/" + currentClassModel.getLowerHyphenName() + ".ts");
+    }
+
+    void createAngularServiceClass(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        renderTemplate("angular-service", currentClassModel, templateContext,
+                "frontend/services/" + currentClassModel.getLowerHyphenName() + ".service.ts");
+    }
+
+    private void createNgRxAction(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        ngRxActionEdit.prepend("import { "
+                + currentClassModel.getUpperCamelCaseName()
+                + " } from 'src/app/models/"
+                + currentClassModel.getLowerHyphenName()
+                + "';");
+        ngRxActionEdit.append("",
+                "export const load"
+                        + currentClassModel.getUpperCamelCaseNameInPlural()
+                        + " = createAction('[Room Rack] Load "
+                        + currentClassModel.getUpperCamelCaseNameInPlural()
+                        + "');",
+                "",
+                "export const "
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + "LoadedSuccess = createAction(",
+                "",
+                "    '[Room Rack] "
+                        + currentClassModel.getUpperCamelCaseNameInPlural()
+                        + " Loaded Success',",
+                "    props<{"
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + ": "
+                        + currentClassModel.getUpperCamelCaseName()
+                        + "[]}>()",
+                ");");
+        // Every page after the first one of a table loaded page by page, with only the rows of that page.
+        if (Boolean.TRUE.equals(templateContext.get("keysetPagination"))) {
+            ngRxActionEdit.append("",
+                    "export const "
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + "PageLoaded = createAction(",
+                    "    '[Room Rack] "
+                            + currentClassModel.getUpperCamelCaseNameInPlural()
+                            + " Page Loaded',",
+                    "    props<{"
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + ": "
+                            + currentClassModel.getUpperCamelCaseName()
+                            + "[]}>()",
+                    ");");
+        }
+    }
+
+    // Whether every file recorded in the manifest of the configured backend still exists.
+    public boolean isOutputComplete(Properties config) {
+        Path manifestPath = Path.of(config.getProperty("backendRootPath")).resolve(MANIFEST_FILE_NAME);
+        if (!Files.exists(manifestPath)) {
+            return false;
+        }
+        Manifest generatedManifest;
+        try {
+            generatedManifest = Manifest.load(manifestPath);
+        } catch (IOException e) {
+            return false;
+        }
+        for (String tableName : generatedManifest.getTableNames()) {
+            for (String file : generatedManifest.getFiles(tableName)) {
+                if (!Files.exists(FileSystemOutputSink.resolve(outputRoots(config), file))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // The parsed models of a SQL file are kept for the next run, which reads them instead of parsing the file again
+    // as long as the file is not modified.
+    private boolean isSchemaCacheEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("schemaCache", "true"));
+    }
+
+    private boolean isNgRxEntityAdapterEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("ngrxEntityAdapter", "false"));
+    }
+
+    // How a table is kept in the NgRx store files, which are only edited when the table is new. It is recorded in the
+    // manifest, so a change of the options is noticed for the tables added before.
+    private String ngRxStyle(ClassModel currentClassModel) {
+        boolean loadedByPages = Boolean.parseBoolean(properties.getProperty("keysetPagination", "false"))
+                && !"BaseEnumEntity".equals(currentClassModel.getExtendedClass());
+        return (isNgRxEntityAdapterEnabled() ? "entity adapter" : "array") + (loadedByPages ? " loaded by pages" : "");
+    }
+
+    private void createNgRxStateMemberHandlerAndSelect(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        ngRxReducerEdit.prepend("import { "
+                + currentClassModel.getUpperCamelCaseName()
+                + " } from 'src/app/models/"
+                + currentClassModel.getLowerHyphenName()
+                + "';");
+        if (isNgRxEntityAdapterEnabled()) {
+            createNgRxEntityStateMemberHandlerAndSelect(currentClassModel, templateContext);
+            return;
+        }
+        ngRxReducerEdit.insertAt("export interface State {", 1, "    "
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + ": "
+                + currentClassModel.getUpperCamelCaseName()
+                + "[];");
+        ngRxReducerEdit.insertAt("export const initialState: State = {", 1, "    "
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + ": [],");
+        ngRxReducerEdit.insertAt("    initialState,", 1,
+                "    on(RoomRackActions."
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + "LoadedSuccess, (state, {"
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + "}) => ({",
+                "        ...state,",
+                "        "
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + ": "
+                        + currentClassModel.getLowerCamelCaseNameInPlural(),
+                "    })),");
+        if (Boolean.TRUE.equals(templateContext.get("keysetPagination"))) {
+            ngRxReducerEdit.insertAt("    initialState,", 1,
+                    "    on(RoomRackActions."
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + "PageLoaded, (state, {"
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + "}) => ({",
+                    "        ...state,",
+                    "        "
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + ": state."
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + ".concat("
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + ")",
+                    "    })),");
+        }
+        ngRxReducerEdit.append("export const select"
+                        + currentClassModel.getUpperCamelCaseNameInPlural()
+                        + " =",
+                "    (state: AppState) => state.roomRack."
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + ";");
+    }
+
+    // The rows of the table are kept normalized (ids and entities by id) by an @ngrx/entity adapter,
+    // so a row (e.g. the one referenced by a foreign key) is found by its id without a scan.
+    private void createNgRxEntityStateMemberHandlerAndSelect(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        String adapter = currentClassModel.getLowerCamelCaseName() + "Adapter";
+        String idPropertyName = (String) templateContext.get("idPropertyName");
+        ngRxReducerEdit.prependIfAbsent("import { createEntityAdapter, EntityAdapter, EntityState } from '@ngrx/entity';");
+        // The adapters are declared before the state, as the initial state is created by them.
+        ngRxReducerEdit.insertAt("export interface State {", 0,
+                "export const "
+                        + adapter
+                        + ": EntityAdapter<"
+                        + currentClassModel.getUpperCamelCaseName()
+                        + "> = createEntityAdapter<"
+                        + currentClassModel.getUpperCamelCaseName()
+                        + (idPropertyName.equals("id") ? ">();" : ">({ selectId: "
+                                + currentClassModel.getLowerCamelCaseName()
+                                + " => "
+                                + currentClassModel.getLowerCamelCaseName()
+                                + "."
+                                + idPropertyName
+                                + " });"),
+                "");
+        ngRxReducerEdit.insertAt("export interface State {", 1, "    "
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + ": EntityState<"
+                + currentClassModel.getUpperCamelCaseName()
+                + ">;");
+        ngRxReducerEdit.insertAt("export const initialState: State = {", 1, "    "
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + ": "
+                + adapter
+                + ".getInitialState(),");
+        ngRxReducerEdit.insertAt("    initialState,", 1,
+                "    on(RoomRackActions."
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + "LoadedSuccess, (state, {"
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + "}) => ({",
+                "        ...state,",
+                "        "
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + ": "
+                        + adapter
+                        + ".setAll("
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + ", state."
+                        + currentClassModel.getLowerCamelCaseNameInPlural()
+                        + ")",
+                "    })),");
+        // The further pages of a table loaded page by page are merged into the rows of the first one.
+        if (Boolean.TRUE.equals(templateContext.get("keysetPagination"))) {
+            ngRxReducerEdit.insertAt("    initialState,", 1,
+                    "    on(RoomRackActions."
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + "PageLoaded, (state, {"
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + "}) => ({",
+                    "        ...state,",
+                    "        "
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + ": "
+                            + adapter
+                            + ".upsertMany("
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + ", state."
+                            + currentClassModel.getLowerCamelCaseNameInPlural()
+                            + ")",
+                    "    })),");
+        }
+        String selectors = currentClassModel.getLowerCamelCaseName() + "Selectors";
+        String stateMember = "state.roomRack." + currentClassModel.getLowerCamelCaseNameInPlural();
+        ngRxReducerEdit.append("const "
+                        + selectors
+                        + " = "
+                        + adapter
+                        + ".getSelectors();",
+                "export const select"
+                        + currentClassModel.getUpperCamelCaseNameInPlural()
+                        + " =",
+                "    (state: AppState) => " + selectors + ".selectAll(" + stateMember + ");",
+                "export const select"
+                        + currentClassModel.getUpperCamelCaseName()
+                        + "Entities =",
+                "    (state: AppState) => " + selectors + ".selectEntities(" + stateMember + ");",
+                "export const select"
+                        + currentClassModel.getUpperCamelCaseName()
+                        + "Ids =",
+                "    (state: AppState) => " + selectors + ".selectIds(" + stateMember + ");",
+                "export const select"
+                        + currentClassModel.getUpperCamelCaseName()
+                        + "Total =",
+                "    (state: AppState) => " + selectors + ".selectTotal(" + stateMember + ");");
+    }
+
+    private void createNgRxEffect(ClassModel currentClassModel, Map<String, Object> templateContext) {
+        ngRxEffectsEdit.prepend("import { "
+                + currentClassModel.getUpperCamelCaseName()
+                + "Service } from 'src/app/services/"
+                + currentClassModel.getLowerHyphenName()
+                + ".service';");
+        // The service is injected before the last two parameters of the constructor.
+        ngRxEffectsEdit.insertAt("  ) {}", -2, "    private "
+                + currentClassModel.getLowerCamelCaseName()
+                + "Service: "
+                + currentClassModel.getUpperCamelCaseName()
+                + "Service,");
+        List<String> effectLines = new ArrayList<>();
+        if ("BaseEnumDto".equals(currentClassModel.getExtendedDtoClass())) {
+            createNgRxEffectForEnum(effectLines, currentClassModel);
+        }
+        else if (Boolean.TRUE.equals(templateContext.get("keysetPagination"))) {
+            createNgRxEffectForPages(effectLines, currentClassModel);
+        }
+        else {
+            createNgRxEffectForNonEnum(effectLines, currentClassModel);
+        }
+        ngRxEffectsEdit.insertAt("  ) {}", 1, effectLines);
+    }
+
+    private void createNgRxEffectForEnum(List<String> lines, ClassModel currentClassModel) {
+
+        lines.add("");
+        lines.add("  load"
+                + currentClassModel.getUpperCamelCaseNameInPlural()
+                + "$ = createEffect(() => this.actions$.pipe(");
+        lines.add("    ofType(RoomRackActions.load"
+                + currentClassModel.getUpperCamelCaseNameInPlural()
+                + "),");
+        lines.add("    concatMap(action => of(action).pipe(");
+        lines.add("      withLatestFrom(this.store.pipe(select(fromRoomRack.select"
+                + currentClassModel.getUpperCamelCaseNameInPlural()
+                + ")))");
+        lines.add("    )),");
+        lines.add("    switchMap(([action, "
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + "]) =>");
+        lines.add("      (!"
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + " || "
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + ".length === 0");
+        lines.add("        ? this."
+                + currentClassModel.getLowerCamelCaseName()
+                + "Service.getAll()");
+        lines.add("        : of("
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + "))");
+        lines.add("      .pipe(");
+        lines.add("        map("
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + " => (RoomRackActions."
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + "LoadedSuccess({"
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + "}))),");
+        lines.add("        catchError(val => this.errorHandlingService.handleError(val))");
+        lines.add("    ))");
+        lines.add("  ));");
+    }
+
+    // Loads the table page by page. The first page replaces the rows in the store, every further page is handed over
+    // on its own and added to them, so no page is copied or dispatched again.
+    private void createNgRxEffectForPages(List<String> lines, ClassModel currentClassModel) {
+        ngRxEffectsEdit.prependIfAbsent("import { expand } from 'rxjs/operators';");
+        lines.add("");
+        lines.add("  load"
+                + currentClassModel.getUpperCamelCaseNameInPlural()
+                + "$ = createEffect(() => this.actions$.pipe(");
+        lines.add("    ofType(RoomRackActions.load"
+                + currentClassModel.getUpperCamelCaseNameInPlural()
+                + "),");
+        lines.add("    switchMap(() => this."
+                + currentClassModel.getLowerCamelCaseName()
+                + "Service.getPage()");
+        lines.add("      .pipe(");
+        lines.add("        expand(page => page.nextAfter !== undefined && page.nextAfter !== null");
+        lines.add("          ? this."
+                + currentClassModel.getLowerCamelCaseName()
+                + "Service.getPage(page.nextAfter)");
+        lines.add("          : of()),");
+        lines.add("        map((page, index) => index === 0");
+        lines.add("          ? RoomRackActions."
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + "LoadedSuccess({"
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + ": page.items})");
+        lines.add("          : RoomRackActions."
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + "PageLoaded({"
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + ": page.items})),");
+        lines.add("        catchError(val => this.errorHandlingService.handleError(val))");
+        lines.add("    ))");
+        lines.add("  ));");
+    }
+
+    private void createNgRxEffectForNonEnum(List<String> lines, ClassModel currentClassModel) {
+
+        lines.add("");
+        lines.add("  load"
+                + currentClassModel.getUpperCamelCaseNameInPlural()
+                + "$ = createEffect(() => this.actions$.pipe(");
+        lines.add("    ofType(RoomRackActions.load"
+                + currentClassModel.getUpperCamelCaseNameInPlural()
+                + "),");
+        lines.add("    switchMap(() => this."
+                + currentClassModel.getLowerCamelCaseName()
+                + "Service.getAll()");
+        lines.add("      .pipe(");
+        lines.add("        map("
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + " => (RoomRackActions."
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + "LoadedSuccess({"
+                + currentClassModel.getLowerCamelCaseNameInPlural()
+                + "}))),");
+        lines.add("        catchError(val => this.errorHandlingService.handleError(val))");
+        lines.add("    ))");
+        lines.add("  ));");
+    }
+}
@@ -0,0 +1,34 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps the generated files in memory by their paths, e.g. for tests, the benchmarks or tools post-processing them.
+public class InMemoryOutputSink implements OutputSink {
+
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean write(String path, byte[] content) {
+        return !Arrays.equals(content, files.put(path, content));
+    }
+
+    public int getFileCount() {
+        return files.size();
+    }
+
+    public String getFile(String path) {
+        byte[] content = files.get(path);
+        return content == null ? null : new String(content, StandardCharsets.UTF_8);
+    }
+
+    // The files in the order of their paths.
+    public Map<String, String> getFiles() {
+        Map<String, String> decodedFiles = new TreeMap<>();
+        files.forEach((path, content) -> decodedFiles.put(path, new String(content, StandardCharsets.UTF_8)));
+        return decodedFiles;
+    }
+}
@@ -0,0 +1,40 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.util.List;
+
+// An index or unique constraint of a table.
+public class IndexModel {
+    private String name;
+    private List<String> columnNames;
+    private boolean unique;
+
+    public IndexModel(String name, List<String> columnNames, boolean unique) {
+        this.name = name;
+        this.columnNames = columnNames;
+        this.unique = unique;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public void setColumnNames(List<String> columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    public void setUnique(boolean unique) {
+        this.unique = unique;
+    }
+}
@@ -0,0 +1,175 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers the definition hash and the generated files of every table from the previous run,
+// so that only the tables whose definition changed have to be generated again.
+public class Manifest {
+
+    private static final String HEADER = "# Generated by model-generator-from-postgres, do not edit.";
+
+    private final String generatorVersion;
+    private final String configHash;
+    private final Map<String, String> tableHashes = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> tableFiles = new ConcurrentHashMap<>();
+    private final Map<String, String> tableNgRxStyles = new ConcurrentHashMap<>();
+
+    public Manifest(String generatorVersion, String configHash) {
+        this.generatorVersion = generatorVersion;
+        this.configHash = configHash;
+    }
+
+    // A manifest which is not in the format written by save (e.g. edited by hand, or cut off) is rejected as a whole.
+    public static Manifest load(Path manifestPath) throws IOException {
+        if (!Files.exists(manifestPath)) {
+            return new Manifest(null, null);
+        }
+        Manifest manifest = null;
+        String generatorVersion = null;
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            boolean valid;
+            switch (fields[0]) {
+                case "version":
+                    valid = fields.length == 2 && manifest == null;
+                    if (valid) {
+                        generatorVersion = fields[1];
+                    }
+                    break;
+                case "config":
+                    valid = fields.length == 2 && generatorVersion != null && manifest == null;
+                    if (valid) {
+                        manifest = new Manifest(generatorVersion, fields[1]);
+                    }
+                    break;
+                case "table":
+                    valid = fields.length == 3 && manifest != null && !fields[1].isEmpty() && !fields[2].isEmpty();
+                    if (valid) {
+                        manifest.putTable(fields[1], fields[2]);
+                    }
+                    break;
+                case "ngrx":
+                    valid = fields.length == 3 && manifest != null && manifest.containsTable(fields[1]) && !fields[2].isEmpty();
+                    if (valid) {
+                        manifest.putNgRxStyle(fields[1], fields[2]);
+                    }
+                    break;
+                case "file":
+                    valid = fields.length == 3 && manifest != null && manifest.containsTable(fields[1]) && !fields[2].isEmpty();
+                    if (valid) {
+                        manifest.addFile(fields[1], fields[2]);
+                    }
+                    break;
+                default:
+                    valid = false;
+            }
+            if (!valid) {
+                throw new IOException("Invalid line " + lineNumber + " in " + manifestPath + ": " + line);
+            }
+        }
+        return manifest != null ? manifest : new Manifest(null, null);
+    }
+
+    public void save(Path manifestPath) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.add("version\t" + generatorVersion);
+        lines.add("config\t" + configHash);
+        for (Map.Entry<String, String> table : new TreeMap<>(tableHashes).entrySet()) {
+            lines.add("table\t" + table.getKey() + "\t" + table.getValue());
+            if (tableNgRxStyles.containsKey(table.getKey())) {
+                lines.add("ngrx\t" + table.getKey() + "\t" + tableNgRxStyles.get(table.getKey()));
+            }
+            for (String file : getFiles(table.getKey())) {
+                lines.add("file\t" + table.getKey() + "\t" + file);
+            }
+        }
+        Path tempFile = Files.createTempFile(manifestPath.toAbsolutePath().getParent(), manifestPath.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            Files.move(tempFile, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // A manifest written by another generator version or with another configuration says nothing about
+    // whether the generated files are still up to date.
+    public boolean isCompatibleWith(Manifest manifest) {
+        return generatorVersion != null && generatorVersion.equals(manifest.generatorVersion)
+                && configHash != null && configHash.equals(manifest.configHash);
+    }
+
+    public boolean containsTable(String tableName) {
+        return tableHashes.containsKey(tableName);
+    }
+
+    public String getHash(String tableName) {
+        return tableHashes.get(tableName);
+    }
+
+    public void putTable(String tableName, String definitionHash) {
+        tableHashes.put(tableName, definitionHash);
+    }
+
+    // How the table was added to the NgRx store files, null if not known (e.g. a table the manifest does not list).
+    public String getNgRxStyle(String tableName) {
+        return tableNgRxStyles.get(tableName);
+    }
+
+    public void putNgRxStyle(String tableName, String ngRxStyle) {
+        tableNgRxStyles.put(tableName, ngRxStyle);
+    }
+
+    public Set<String> getTableNames() {
+        return Collections.unmodifiableSet(tableHashes.keySet());
+    }
+
+    public Set<String> getFiles(String tableName) {
+        Set<String> files = tableFiles.get(tableName);
+        return files == null ? Collections.emptySet() : new TreeSet<>(files);
+    }
+
+    public void addFile(String tableName, String filePath) {
+        tableFiles.computeIfAbsent(tableName, x -> ConcurrentHashMap.newKeySet()).add(filePath);
+    }
+
+    public void copyTable(String tableName, Manifest previousManifest) {
+        putTable(tableName, previousManifest.getHash(tableName));
+        if (previousManifest.getNgRxStyle(tableName) != null) {
+            putNgRxStyle(tableName, previousManifest.getNgRxStyle(tableName));
+        }
+        for (String file : previousManifest.getFiles(tableName)) {
+            addFile(tableName, file);
+        }
+    }
+
+    // Tables of this manifest missing from the given one, in the order of their names.
+    public Map<String, Set<String>> getTablesMissingFrom(Manifest manifest) {
+        Map<String, Set<String>> missingTables = new LinkedHashMap<>();
+        for (String tableName : new TreeSet<>(tableHashes.keySet())) {
+            if (!manifest.containsTable(tableName)) {
+                missingTables.put(tableName, getFiles(tableName));
+            }
+        }
+        return missingTables;
+    }
+}
@@ -8,8 +8,11 @@ public class ModelProperty {
     private String javaEntityType;
     private String jsType;
     private String upperCamelCaseName; // type or class name
+    private boolean reference; // column referencing another table (e.g. room_type_id)
+    private String sequenceName; // sequence generating the values of the column (serial, identity or nextval default)
+    private boolean generatedAlways; // identity column not accepting values given on insert
 
-    public ModelProperty(String lowerCamelCaseName, String lowerUnderscoreName, String javaDtoType, String javaEntityType, String jsType, String upperCamelCaseName) {
+    public ModelProperty(String lowerCamelCaseName, String lowerUnderscoreName, String javaDtoType, String javaEntityType, String jsType, String upperCamelCaseName, boolean reference) {
         this.lowerCamelCaseName = lowerCamelCaseName;
         this.lowerUnderscoreName = lowerUnderscoreName;
         this.javaDtoType = javaDtoType;
@@ -19,6 +22,7 @@ public class ModelProperty {
             upperCamelCaseName = upperCamelCaseName.substring(2);
         }
         this.upperCamelCaseName = upperCamelCaseName;
+        this.reference = reference;
     }
 
     public String getLowerCamelCaseName() {
@@ -68,4 +72,28 @@ public class ModelProperty {
     public void setUpperCamelCaseName(String upperCamelCaseName) {
         this.upperCamelCaseName = upperCamelCaseName;
     }
+
+    public boolean isReference() {
+        return reference;
+    }
+
+    public void setReference(boolean reference) {
+        this.reference = reference;
+    }
+
+    public String getSequenceName() {
+        return sequenceName;
+    }
+
+    public void setSequenceName(String sequenceName) {
+        this.sequenceName = sequenceName;
+    }
+
+    public boolean isGeneratedAlways() {
+        return generatedAlways;
+    }
+
+    public void setGeneratedAlways(boolean generatedAlways) {
+        this.generatedAlways = generatedAlways;
+    }
 }
@@ -0,0 +1,17 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Where the generated files go. The paths are relative, separated by '/', and start with the root they belong to
+// (backend/entity/RoomEntity.java, frontend/models/room.ts). The emitters write in parallel, so the implementations
+// have to be thread-safe.
+public interface OutputSink extends Closeable {
+
+    // Returns false if the file already had the content and was left alone.
+    boolean write(String path, byte[] content) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
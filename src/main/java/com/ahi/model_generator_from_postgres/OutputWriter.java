@@ -0,0 +1,59 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+// Every generated file is written through this class, which counts the files, and passes them to the output sink.
+public class OutputWriter {
+
+    private final OutputSink outputSink;
+    private final LongAdder writtenFileCount = new LongAdder();
+    private final LongAdder unchangedFileCount = new LongAdder();
+    private final LongAdder skippedFileCount = new LongAdder();
+    private final LongAdder writtenByteCount = new LongAdder();
+
+    public OutputWriter(OutputSink outputSink) {
+        this.outputSink = outputSink;
+    }
+
+    public OutputSink getOutputSink() {
+        return outputSink;
+    }
+
+    public void write(String path, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        if (!outputSink.write(path, bytes)) {
+            unchangedFileCount.increment();
+            return;
+        }
+        writtenFileCount.increment();
+        writtenByteCount.add(bytes.length);
+    }
+
+    // Files that were not rendered at all, because their table did not change since the last run.
+    public void skip(int fileCount) {
+        skippedFileCount.add(fileCount);
+    }
+
+    public long getWrittenFileCount() {
+        return writtenFileCount.sum();
+    }
+
+    public long getUnchangedFileCount() {
+        return unchangedFileCount.sum();
+    }
+
+    public long getSkippedFileCount() {
+        return skippedFileCount.sum();
+    }
+
+    public long getWrittenByteCount() {
+        return writtenByteCount.sum();
+    }
+
+    public String getSummary() {
+        return "Files: " + writtenFileCount.sum() + " written, " + unchangedFileCount.sum() + " unchanged, "
+                + skippedFileCount.sum() + " skipped.";
+    }
+}
@@ -0,0 +1,177 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+
+// Reads the tables of a pg_dump archive in the custom (-Fc) or directory (-Fd) format without pg_restore. The table
+// of contents (the start of a custom archive, toc.dat of a directory archive) holds the DDL of every object, so only
+// that is read: the definitions of the tables, constraints and indexes are passed to the SqlTokenizer, and the data
+// blocks after the table of contents are never touched.
+public class PgDumpArchive {
+
+    public static final String DIRECTORY_TOC_FILE_NAME = "toc.dat";
+
+    private static final byte[] MAGIC = "PGDMP".getBytes(StandardCharsets.US_ASCII);
+    private static final int FORMAT_CUSTOM = 1;
+    private static final int FORMAT_TAR = 3; // toc.dat extracted from a tar archive
+    private static final int FORMAT_DIRECTORY = 5; // toc.dat of a directory archive
+    // Archive versions 1.12 (PostgreSQL 9.0) to 1.16 (PostgreSQL 17).
+    private static final int MIN_VERSION = version(1, 12, 0);
+    private static final int MAX_VERSION = version(1, 16, 255);
+    private static final int VERSION_1_14 = version(1, 14, 0); // table access method
+    private static final int VERSION_1_15 = version(1, 15, 0); // compression algorithm instead of level
+    private static final int VERSION_1_16 = version(1, 16, 0); // relkind
+    // DEFAULT entries set the nextval defaults of serial columns (ALTER TABLE ... ALTER COLUMN ... SET DEFAULT), the
+    // SEQUENCE entry of an identity column adds the identity to its column (ALTER TABLE ... ADD GENERATED ...).
+    private static final Set<String> SCHEMA_ENTRY_DESCRIPTIONS = Set.of("TABLE", "DEFAULT", "SEQUENCE", "CONSTRAINT",
+            "FK CONSTRAINT", "INDEX");
+
+    private final DataInputStream in;
+    private int version;
+    private int intSize;
+    private int offSize;
+    private int format;
+
+    private PgDumpArchive(InputStream inputStream) {
+        this.in = new DataInputStream(new BufferedInputStream(inputStream, 64 * 1024));
+    }
+
+    public static boolean isArchive(Path file) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return Arrays.equals(inputStream.readNBytes(MAGIC.length), MAGIC);
+        }
+    }
+
+    public static void parse(Path archiveFile, SchemaListener listener) throws IOException {
+        ByteArrayOutputStream definitions = new ByteArrayOutputStream();
+        try (InputStream inputStream = Files.newInputStream(archiveFile)) {
+            PgDumpArchive archive = new PgDumpArchive(inputStream);
+            archive.readHeader(archiveFile);
+            archive.readTableOfContents(definitions);
+        } catch (EOFException e) {
+            throw new IOException("Truncated pg_dump archive: " + archiveFile, e);
+        }
+        SqlTokenizer.parse(ByteBuffer.wrap(definitions.toByteArray()), listener);
+    }
+
+    private void readHeader(Path archiveFile) throws IOException {
+        if (!Arrays.equals(in.readNBytes(MAGIC.length), MAGIC)) {
+            throw new IOException("Not a pg_dump archive: " + archiveFile);
+        }
+        version = version(in.readUnsignedByte(), in.readUnsignedByte(), in.readUnsignedByte());
+        if (version < MIN_VERSION || version > MAX_VERSION) {
+            throw new IOException("Unsupported pg_dump archive version " + (version >> 16) + "." + (version >> 8 & 0xFF)
+                    + " of " + archiveFile + ", convert it with pg_restore -s -f <file.sql>");
+        }
+        intSize = in.readUnsignedByte();
+        offSize = in.readUnsignedByte();
+        format = in.readUnsignedByte();
+        if (format != FORMAT_CUSTOM && format != FORMAT_TAR && format != FORMAT_DIRECTORY) {
+            throw new IOException("Only custom and directory pg_dump archives can be read: " + archiveFile);
+        }
+        if (version >= VERSION_1_15) {
+            in.readUnsignedByte(); // compression algorithm
+        }
+        else {
+            readInt(); // compression level
+        }
+        for (int i = 0; i < 7; i++) {
+            readInt(); // creation time
+        }
+        skipString(); // database name
+        skipString(); // server version
+        skipString(); // pg_dump version
+    }
+
+    private void readTableOfContents(ByteArrayOutputStream definitions) throws IOException {
+        int entryCount = readInt();
+        for (int i = 0; i < entryCount; i++) {
+            readInt(); // dump id
+            readInt(); // has data
+            skipString(); // table oid
+            skipString(); // oid
+            skipString(); // tag
+            byte[] description = readString();
+            readInt(); // section
+            byte[] definition = readString();
+            skipString(); // drop statement
+            skipString(); // copy statement
+            skipString(); // schema
+            skipString(); // tablespace
+            if (version >= VERSION_1_14) {
+                skipString(); // table access method
+            }
+            if (version >= VERSION_1_16) {
+                readInt(); // relkind
+            }
+            skipString(); // owner
+            skipString(); // with oids
+            while (readString() != null) {
+                // dependencies, terminated by a null string
+            }
+            if (format == FORMAT_CUSTOM) {
+                in.readUnsignedByte(); // data offset flag
+                skip(offSize); // data offset
+            }
+            else {
+                skipString(); // data file name (directory and tar archives)
+            }
+            if (description != null && definition != null
+                    && SCHEMA_ENTRY_DESCRIPTIONS.contains(new String(description, StandardCharsets.UTF_8))) {
+                definitions.write(definition);
+                definitions.write('\n');
+            }
+        }
+    }
+
+    // A sign byte, then the absolute value in intSize bytes, least significant first.
+    private int readInt() throws IOException {
+        boolean negative = in.readUnsignedByte() != 0;
+        long value = 0;
+        for (int i = 0; i < intSize; i++) {
+            value |= (long) in.readUnsignedByte() << (8 * i);
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    private byte[] readString() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private void skipString() throws IOException {
+        int length = readInt();
+        if (length > 0) {
+            skip(length);
+        }
+    }
+
+    private void skip(int count) throws IOException {
+        while (count > 0) {
+            int skipped = in.skipBytes(count);
+            if (skipped == 0) {
+                throw new EOFException();
+            }
+            count -= skipped;
+        }
+    }
+
+    private static int version(int major, int minor, int revision) {
+        return major << 16 | minor << 8 | revision;
+    }
+}
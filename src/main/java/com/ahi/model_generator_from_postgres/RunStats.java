@@ -0,0 +1,165 @@
+package com.ahi.model_generator_from_postgres;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// The timers and counters of one generator run, printed or written as JSON with --stats. The phases are timed on the
+// thread running them, the emitters on the emitter threads, so the emitter times add up to more than the wall-clock
+// time of the emit phase. Tables and emitters are recorded as Flight Recorder events as well, e.g. with
+// java -XX:StartFlightRecording=filename=run.jfr ... (jfr print --events Table,Emitter run.jfr).
+public class RunStats {
+
+    @Name("com.ahi.model_generator_from_postgres.Table")
+    @Label("Table")
+    @Category("Model Generator")
+    static class TableEvent extends Event {
+        @Label("Table Name")
+        String tableName;
+        @Label("Generated")
+        boolean generated;
+    }
+
+    @Name("com.ahi.model_generator_from_postgres.Emitter")
+    @Label("Emitter")
+    @Category("Model Generator")
+    static class EmitterEvent extends Event {
+        @Label("Table Name")
+        String tableName;
+        @Label("Emitter")
+        String emitter;
+    }
+
+    private static class Timer {
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        private void add(long elapsedNanos) {
+            nanos.add(elapsedNanos);
+            count.increment();
+        }
+    }
+
+    private final long startTime = System.nanoTime();
+    private long wallClockNanos;
+    // In the order the phases and emitters ran first.
+    private final Map<String, Timer> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, Timer> emitters = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final LongAdder tableCount = new LongAdder();
+    private final LongAdder generatedTableCount = new LongAdder();
+    private final LongAdder columnCount = new LongAdder();
+
+    // Returns the start time for addPhase.
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void addPhase(String phase, long startTime) {
+        phases.computeIfAbsent(phase, x -> new Timer()).add(System.nanoTime() - startTime);
+    }
+
+    public void addEmitter(String emitter, long startTime) {
+        emitters.computeIfAbsent(emitter, x -> new Timer()).add(System.nanoTime() - startTime);
+    }
+
+    public void countTable(ClassModel classModel, boolean generated) {
+        tableCount.increment();
+        columnCount.add(classModel.getProperties().size() + classModel.getInheritedProperties().size());
+        if (generated) {
+            generatedTableCount.increment();
+        }
+    }
+
+    public void finish() {
+        wallClockNanos = System.nanoTime() - startTime;
+    }
+
+    public long getWallClockMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(wallClockNanos);
+    }
+
+    // The time spent in the emitters, summed over the emitter threads. It is not the time of a single-threaded run,
+    // the threads slow each other down (memory bandwidth, the output sink), so it overstates that.
+    public long getEmitterMillis() {
+        synchronized (emitters) {
+            return TimeUnit.NANOSECONDS.toMillis(emitters.values().stream().mapToLong(x -> x.nanos.sum()).sum());
+        }
+    }
+
+    public long getTableCount() {
+        return tableCount.sum();
+    }
+
+    public long getGeneratedTableCount() {
+        return generatedTableCount.sum();
+    }
+
+    public String getSummary(OutputWriter outputWriter) {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%-24s %10s %8s%n", "Phase", "ms", "count"));
+        appendTimers(summary, phases);
+        summary.append(String.format("%-24s %10s %8s%n", "Emitter", "ms", "count"));
+        appendTimers(summary, emitters);
+        summary.append(String.format("%-24s %10.1f%n", "Wall clock", wallClockNanos / 1e6));
+        summary.append(String.format("%-24s %10d%n", "Tables", tableCount.sum()));
+        summary.append(String.format("%-24s %10d%n", "Tables generated", generatedTableCount.sum()));
+        summary.append(String.format("%-24s %10d%n", "Columns", columnCount.sum()));
+        summary.append(String.format("%-24s %10d%n", "Files written", outputWriter.getWrittenFileCount()));
+        summary.append(String.format("%-24s %10d%n", "Files unchanged", outputWriter.getUnchangedFileCount()));
+        summary.append(String.format("%-24s %10d%n", "Files skipped", outputWriter.getSkippedFileCount()));
+        summary.append(String.format("%-24s %10d", "Bytes written", outputWriter.getWrittenByteCount()));
+        return summary.toString();
+    }
+
+    private static void appendTimers(StringBuilder summary, Map<String, Timer> timers) {
+        synchronized (timers) {
+            for (Map.Entry<String, Timer> timer : timers.entrySet()) {
+                summary.append(String.format("    %-20s %10.1f %8d%n", timer.getKey(), timer.getValue().nanos.sum() / 1e6,
+                        timer.getValue().count.sum()));
+            }
+        }
+    }
+
+    // The names of the phases and emitters are fixed identifiers, they need no escaping.
+    public void writeJson(Path jsonPath, OutputWriter outputWriter) throws IOException {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"wallClockNanos\": ").append(wallClockNanos).append(",\n");
+        json.append("  \"phases\": ");
+        appendTimersAsJson(json, phases);
+        json.append(",\n  \"emitters\": ");
+        appendTimersAsJson(json, emitters);
+        json.append(",\n  \"tables\": ").append(tableCount.sum()).append(",\n");
+        json.append("  \"generatedTables\": ").append(generatedTableCount.sum()).append(",\n");
+        json.append("  \"columns\": ").append(columnCount.sum()).append(",\n");
+        json.append("  \"filesWritten\": ").append(outputWriter.getWrittenFileCount()).append(",\n");
+        json.append("  \"filesUnchanged\": ").append(outputWriter.getUnchangedFileCount()).append(",\n");
+        json.append("  \"filesSkipped\": ").append(outputWriter.getSkippedFileCount()).append(",\n");
+        json.append("  \"bytesWritten\": ").append(outputWriter.getWrittenByteCount()).append("\n}\n");
+        Files.write(jsonPath, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendTimersAsJson(StringBuilder json, Map<String, Timer> timers) {
+        json.append('{');
+        synchronized (timers) {
+            String separator = "\n";
+            for (Map.Entry<String, Timer> timer : timers.entrySet()) {
+                json.append(separator).append("    \"").append(timer.getKey()).append("\": { \"nanos\": ")
+                        .append(timer.getValue().nanos.sum()).append(", \"count\": ").append(timer.getValue().count.sum())
+                        .append(" }");
+                separator = ",\n";
+            }
+        }
+        json.append(timers.isEmpty() ? "}" : "\n  }");
+    }
+}
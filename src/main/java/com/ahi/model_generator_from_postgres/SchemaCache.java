@@ -0,0 +1,230 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// The parsed schema in a compact binary form, so that an unchanged schema does not have to be parsed again, and other
+// tools can load the models without the parser. Layout (big endian):
+//   magic "MGIR", format version, fingerprint of the input
+//   string table: count, then every string as UTF-8 length and bytes (each string is stored once, e.g. the types)
+//   tables: count, then every table with its names, properties, keys and import lines as indexes into the string table
+// A null string is the index -1.
+public class SchemaCache {
+
+    private static final int MAGIC = 0x4d474952; // MGIR
+    private static final int FORMAT_VERSION = 1;
+
+    private SchemaCache() {
+    }
+
+    // Identifies the input the cache was written for. A cache of another generator version is not used either,
+    // as the parser may have changed.
+    public static String fingerprint(List<Path> schemaFiles, String generatorVersion) throws IOException {
+        StringBuilder fingerprint = new StringBuilder(generatorVersion);
+        for (Path schemaFile : schemaFiles) {
+            fingerprint.append('|').append(schemaFile.toAbsolutePath().normalize()).append('|').append(Files.size(schemaFile))
+                    .append('|').append(Files.getLastModifiedTime(schemaFile).toMillis());
+        }
+        return fingerprint.toString();
+    }
+
+    public static void write(Path cachePath, String fingerprint, List<ClassModel> classModels) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteArrayOutputStream tables = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(tables);
+        out.writeInt(classModels.size());
+        for (ClassModel classModel : classModels) {
+            writeString(out, strings, classModel.getUpperCamelCaseName());
+            writeString(out, strings, classModel.getLowerUnderscoreName());
+            writeString(out, strings, classModel.getLowerCamelCaseName());
+            writeString(out, strings, classModel.getLowerHyphenName());
+            writeString(out, strings, classModel.getUpperCamelCaseNameInPlural());
+            writeString(out, strings, classModel.getLowerCamelCaseNameInPlural());
+            writeString(out, strings, classModel.getLowerHyphenNameInPlural());
+            writeString(out, strings, classModel.getExtendedClass());
+            writeString(out, strings, classModel.getDefinitionHash());
+            writeStrings(out, strings, classModel.getPrimaryKeyColumns());
+            writeProperties(out, strings, classModel.getProperties());
+            writeProperties(out, strings, classModel.getInheritedProperties());
+            writeIndexes(out, strings, classModel.getIndexes());
+            writeIndexes(out, strings, classModel.getUniqueConstraints());
+            writeStrings(out, strings, classModel.getJavaImportLines());
+            writeStrings(out, strings, classModel.getJsImportLines());
+        }
+        out.flush();
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream(tables.size() + 64 * strings.size());
+        DataOutputStream fileOut = new DataOutputStream(file);
+        fileOut.writeInt(MAGIC);
+        fileOut.writeInt(FORMAT_VERSION);
+        writeUtf8(fileOut, fingerprint);
+        fileOut.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            writeUtf8(fileOut, string);
+        }
+        tables.writeTo(fileOut);
+        fileOut.flush();
+
+        Path tempFile = Files.createTempFile(cachePath.toAbsolutePath().getParent(), cachePath.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, file.toByteArray());
+            Files.move(tempFile, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    // The frozen models of the cache, or null if there is no cache for the given fingerprint (null accepts the
+    // cache of any input).
+    public static List<ClassModel> read(Path cachePath, String fingerprint) throws IOException {
+        if (!Files.exists(cachePath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            String cachedFingerprint = readUtf8(buffer);
+            if (fingerprint != null && !fingerprint.equals(cachedFingerprint)) {
+                return null;
+            }
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readUtf8(buffer);
+            }
+            int tableCount = buffer.getInt();
+            List<ClassModel> classModels = new ArrayList<>(tableCount);
+            for (int i = 0; i < tableCount; i++) {
+                ClassModel classModel = new ClassModel(readString(buffer, strings), readString(buffer, strings),
+                        readString(buffer, strings), readString(buffer, strings), readString(buffer, strings),
+                        readString(buffer, strings), readString(buffer, strings));
+                classModel.setExtendedClass(readString(buffer, strings));
+                classModel.setDefinitionHash(readString(buffer, strings));
+                classModel.setPrimaryKeyColumns(readStrings(buffer, strings, new ArrayList<>()));
+                classModel.setProperties(readProperties(buffer, strings));
+                classModel.setInheritedProperties(readProperties(buffer, strings));
+                classModel.setIndexes(readIndexes(buffer, strings));
+                classModel.setUniqueConstraints(readIndexes(buffer, strings));
+                // In the order they were written, so the generated imports are in the same order as after parsing.
+                classModel.setJavaImportLines(readStrings(buffer, strings, new LinkedHashSet<>()));
+                classModel.setJsImportLines(readStrings(buffer, strings, new LinkedHashSet<>()));
+                classModels.add(classModel.freeze());
+            }
+            return classModels;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Truncated or corrupt schema cache: " + cachePath, e);
+        }
+    }
+
+    private static void writeProperties(DataOutputStream out, Map<String, Integer> strings, List<ModelProperty> properties) throws IOException {
+        out.writeInt(properties.size());
+        for (ModelProperty property : properties) {
+            writeString(out, strings, property.getLowerCamelCaseName());
+            writeString(out, strings, property.getLowerUnderscoreName());
+            writeString(out, strings, property.getJavaDtoType());
+            writeString(out, strings, property.getJavaEntityType());
+            writeString(out, strings, property.getJsType());
+            writeString(out, strings, property.getUpperCamelCaseName());
+            writeString(out, strings, property.getSequenceName());
+            out.writeByte((property.isReference() ? 1 : 0) | (property.isGeneratedAlways() ? 2 : 0));
+        }
+    }
+
+    private static List<ModelProperty> readProperties(ByteBuffer buffer, String[] strings) {
+        int count = buffer.getInt();
+        List<ModelProperty> properties = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String lowerCamelCaseName = readString(buffer, strings);
+            String lowerUnderscoreName = readString(buffer, strings);
+            String javaDtoType = readString(buffer, strings);
+            String javaEntityType = readString(buffer, strings);
+            String jsType = readString(buffer, strings);
+            String upperCamelCaseName = readString(buffer, strings);
+            String sequenceName = readString(buffer, strings);
+            byte flags = buffer.get();
+            ModelProperty property = new ModelProperty(lowerCamelCaseName, lowerUnderscoreName, javaDtoType,
+                    javaEntityType, jsType, upperCamelCaseName, (flags & 1) != 0);
+            // The cached name is the one already shortened by the constructor (is_active: Active).
+            property.setUpperCamelCaseName(upperCamelCaseName);
+            property.setSequenceName(sequenceName);
+            property.setGeneratedAlways((flags & 2) != 0);
+            properties.add(property);
+        }
+        return properties;
+    }
+
+    private static void writeIndexes(DataOutputStream out, Map<String, Integer> strings, List<IndexModel> indexes) throws IOException {
+        out.writeInt(indexes.size());
+        for (IndexModel index : indexes) {
+            writeString(out, strings, index.getName());
+            writeStrings(out, strings, index.getColumnNames());
+            out.writeBoolean(index.isUnique());
+        }
+    }
+
+    private static List<IndexModel> readIndexes(ByteBuffer buffer, String[] strings) {
+        int count = buffer.getInt();
+        List<IndexModel> indexes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = readString(buffer, strings);
+            List<String> columnNames = readStrings(buffer, strings, new ArrayList<>());
+            indexes.add(new IndexModel(name, columnNames, buffer.get() != 0));
+        }
+        return indexes;
+    }
+
+    private static void writeStrings(DataOutputStream out, Map<String, Integer> strings, Iterable<String> values) throws IOException {
+        List<String> valueList = new ArrayList<>();
+        values.forEach(valueList::add);
+        out.writeInt(valueList.size());
+        for (String value : valueList) {
+            writeString(out, strings, value);
+        }
+    }
+
+    private static <T extends Collection<String>> T readStrings(ByteBuffer buffer, String[] strings, T values) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            values.add(readString(buffer, strings));
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, Map<String, Integer> strings, String value) throws IOException {
+        out.writeInt(value == null ? -1 : strings.computeIfAbsent(value, x -> strings.size()));
+    }
+
+    private static String readString(ByteBuffer buffer, String[] strings) {
+        int index = buffer.getInt();
+        return index < 0 ? null : strings[index];
+    }
+
+    private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readUtf8(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,315 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// The SQL files of the schema: a single file, the .sql files of a directory (and its subdirectories), or the files
+// matching a glob pattern (e.g. db/migration/V*.sql). The files are applied in the natural order of their paths
+// (V2__... before V10__...), as migration tools do.
+public class SchemaFileSet {
+
+    private static final Pattern VERSIONED_NAME = Pattern.compile("([A-Za-z]*)(\\d+(?:[._]\\d+)*)__.*");
+
+    // The events of one file, recorded while the files are tokenized in parallel, and replayed in file order.
+    private static class RecordingListener implements SchemaListener {
+        private final List<Consumer<SchemaListener>> events = new ArrayList<>();
+        // The file as it was tokenized, read before, so a change while tokenizing is noticed by the next parse.
+        private final FileTime lastModifiedTime;
+        private final long size;
+
+        private RecordingListener(Path file) throws IOException {
+            lastModifiedTime = Files.getLastModifiedTime(file);
+            size = Files.size(file);
+        }
+
+        private boolean isRecordingOf(Path file) throws IOException {
+            return lastModifiedTime.equals(Files.getLastModifiedTime(file)) && size == Files.size(file);
+        }
+
+        @Override
+        public void onTable(String tableName) {
+            events.add(x -> x.onTable(tableName));
+        }
+
+        @Override
+        public void onTable(String tableName, boolean ifNotExists) {
+            events.add(x -> x.onTable(tableName, ifNotExists));
+        }
+
+        @Override
+        public void onColumn(String tableName, String columnName, String columnType, String definition) {
+            events.add(x -> x.onColumn(tableName, columnName, columnType, definition));
+        }
+
+        @Override
+        public void onTableEnd(String tableName) {
+            events.add(x -> x.onTableEnd(tableName));
+        }
+
+        @Override
+        public void onPrimaryKey(String tableName, List<String> columnNames) {
+            events.add(x -> x.onPrimaryKey(tableName, columnNames));
+        }
+
+        @Override
+        public void onForeignKey(String tableName, List<String> columnNames, String referencedTableName) {
+            events.add(x -> x.onForeignKey(tableName, columnNames, referencedTableName));
+        }
+
+        @Override
+        public void onUniqueConstraint(String tableName, String constraintName, List<String> columnNames) {
+            events.add(x -> x.onUniqueConstraint(tableName, constraintName, columnNames));
+        }
+
+        @Override
+        public void onIndex(String tableName, String indexName, List<String> columnNames, boolean unique) {
+            events.add(x -> x.onIndex(tableName, indexName, columnNames, unique));
+        }
+
+        @Override
+        public void onColumnAdded(String tableName, String columnName, String columnType, String definition, boolean optional) {
+            events.add(x -> x.onColumnAdded(tableName, columnName, columnType, definition, optional));
+        }
+
+        @Override
+        public void onColumnDropped(String tableName, String columnName, boolean optional) {
+            events.add(x -> x.onColumnDropped(tableName, columnName, optional));
+        }
+
+        @Override
+        public void onColumnTypeChanged(String tableName, String columnName, String columnType, String typeDefinition, boolean optional) {
+            events.add(x -> x.onColumnTypeChanged(tableName, columnName, columnType, typeDefinition, optional));
+        }
+
+        @Override
+        public void onColumnDefaultChanged(String tableName, String columnName, String defaultExpression, boolean optional) {
+            events.add(x -> x.onColumnDefaultChanged(tableName, columnName, defaultExpression, optional));
+        }
+
+        @Override
+        public void onColumnIdentityChanged(String tableName, String columnName, String identityDefinition, boolean optional) {
+            events.add(x -> x.onColumnIdentityChanged(tableName, columnName, identityDefinition, optional));
+        }
+
+        @Override
+        public void onColumnRenamed(String tableName, String columnName, String newColumnName, boolean optional) {
+            events.add(x -> x.onColumnRenamed(tableName, columnName, newColumnName, optional));
+        }
+
+        @Override
+        public void onTableRenamed(String tableName, String newTableName, boolean optional) {
+            events.add(x -> x.onTableRenamed(tableName, newTableName, optional));
+        }
+
+        @Override
+        public void onTableDropped(String tableName, boolean optional) {
+            events.add(x -> x.onTableDropped(tableName, optional));
+        }
+
+        // onSchemaEnd is not recorded, the schema ends after the last file.
+
+        private void replay(SchemaListener listener) {
+            events.forEach(x -> x.accept(listener));
+        }
+    }
+
+    // The events of the files parsed before, so a file not modified since is replayed instead of tokenized again (in
+    // watch mode). The events of every file are kept, the memory use grows with the size of the whole schema.
+    static class Recordings {
+        private final Map<Path, RecordingListener> recordingListeners = new ConcurrentHashMap<>();
+    }
+
+    private SchemaFileSet() {
+    }
+
+    // A directory with a toc.dat is a pg_dump directory archive, a single source.
+    public static boolean isFileSet(String schemaSource) {
+        return isGlob(schemaSource) || Files.isDirectory(Path.of(schemaSource))
+                && !Files.exists(Path.of(schemaSource).resolve(PgDumpArchive.DIRECTORY_TOC_FILE_NAME));
+    }
+
+    // The directory to watch for changes of the file set.
+    public static Path baseDirectory(String schemaSource) {
+        if (!isGlob(schemaSource)) {
+            return Path.of(schemaSource);
+        }
+        Path baseDirectory = Path.of(schemaSource.substring(0, firstGlobCharacter(schemaSource))).getParent();
+        return baseDirectory != null ? baseDirectory : Path.of("");
+    }
+
+    public static List<Path> resolve(String schemaSource) throws IOException {
+        Path baseDirectory = baseDirectory(schemaSource);
+        PathMatcher matcher = isGlob(schemaSource)
+                ? FileSystems.getDefault().getPathMatcher("glob:" + schemaSource.replace("\\", "\\\\"))
+                : x -> x.getFileName().toString().toLowerCase().endsWith(".sql");
+        try (Stream<Path> paths = Files.walk(baseDirectory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(matcher::matches)
+                    .sorted(Comparator.comparing(x -> baseDirectory.relativize(x).toString(), SchemaFileSet::comparePaths))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Tokenizes the files in parallel, and applies them one after the other, in order. The conflicts found in a file
+    // are printed with the name of the file. The events of a file are kept until the files before it are applied, and
+    // only two files per thread are tokenized ahead of the one applied next, so the memory use does not grow with the
+    // number of files (but with their size, as the events of a whole file are recorded).
+    public static void parse(List<Path> files, int threadCount, ClassModelBuilder classModelBuilder) throws IOException, InterruptedException {
+        parse(files, threadCount, classModelBuilder, null);
+    }
+
+    // With the recordings of the previous parse (null: none are kept), the files not modified since are replayed.
+    static void parse(List<Path> files, int threadCount, ClassModelBuilder classModelBuilder, Recordings recordings)
+            throws IOException, InterruptedException {
+        if (recordings != null) {
+            recordings.recordingListeners.keySet().retainAll(files);
+        }
+        else if (files.size() == 1) {
+            parse(files.get(0), classModelBuilder);
+            classModelBuilder.getConflicts().forEach(x -> System.out.println(files.get(0) + ": " + x));
+            return;
+        }
+        int parserThreadCount = Math.max(1, Math.min(threadCount, files.size()));
+        ExecutorService parserExecutor = Executors.newFixedThreadPool(parserThreadCount);
+        try {
+            Deque<Future<RecordingListener>> fileRecordings = new ArrayDeque<>();
+            int submittedFileCount = 0;
+            for (int i = 0; i < files.size(); i++) {
+                while (submittedFileCount < files.size() && submittedFileCount <= i + 2 * parserThreadCount) {
+                    Path file = files.get(submittedFileCount++);
+                    RecordingListener previousRecordingListener = recordings != null ? recordings.recordingListeners.get(file) : null;
+                    if (previousRecordingListener != null && previousRecordingListener.isRecordingOf(file)) {
+                        fileRecordings.add(CompletableFuture.completedFuture(previousRecordingListener));
+                        continue;
+                    }
+                    fileRecordings.add(parserExecutor.submit(() -> {
+                        RecordingListener recordingListener = new RecordingListener(file);
+                        parse(file, recordingListener);
+                        if (recordings != null) {
+                            recordings.recordingListeners.put(file, recordingListener);
+                        }
+                        return recordingListener;
+                    }));
+                }
+                int conflictCount = classModelBuilder.getConflicts().size();
+                fileRecordings.remove().get().replay(classModelBuilder);
+                for (String conflict : classModelBuilder.getConflicts().subList(conflictCount, classModelBuilder.getConflicts().size())) {
+                    System.out.println(files.get(i) + ": " + conflict);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            parserExecutor.shutdownNow();
+        }
+        classModelBuilder.onSchemaEnd();
+    }
+
+    // A SQL file, or a pg_dump archive (a custom archive, or the toc.dat of a directory archive).
+    private static void parse(Path file, SchemaListener listener) throws IOException {
+        if (PgDumpArchive.isArchive(file)) {
+            PgDumpArchive.parse(file, listener);
+        }
+        else {
+            SqlTokenizer.parse(file, listener);
+        }
+    }
+
+    private static boolean isGlob(String schemaSource) {
+        return firstGlobCharacter(schemaSource) < schemaSource.length();
+    }
+
+    private static int firstGlobCharacter(String schemaSource) {
+        for (int i = 0; i < schemaSource.length(); i++) {
+            if ("*?[{".indexOf(schemaSource.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return schemaSource.length();
+    }
+
+    // Compares the relative paths directory by directory. File names with a migration version (e.g. V1_1__rooms.sql,
+    // V2.1__bookings.sql) are ordered by the version, the parts separated by . or _ as numbers, as Flyway does.
+    static int comparePaths(String a, String b) {
+        String[] namesA = a.split("[/\\\\]");
+        String[] namesB = b.split("[/\\\\]");
+        for (int i = 0; i < namesA.length && i < namesB.length; i++) {
+            int comparison = compareNames(namesA[i], namesB[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(namesA.length, namesB.length);
+    }
+
+    private static int compareNames(String a, String b) {
+        Matcher versionA = VERSIONED_NAME.matcher(a);
+        Matcher versionB = VERSIONED_NAME.matcher(b);
+        if (versionA.matches() && versionB.matches() && versionA.group(1).equalsIgnoreCase(versionB.group(1))) {
+            String[] partsA = versionA.group(2).split("[._]");
+            String[] partsB = versionB.group(2).split("[._]");
+            // A missing part counts as 0 (1 is the same version as 1.0).
+            for (int i = 0; i < partsA.length || i < partsB.length; i++) {
+                int comparison = compareNaturally(i < partsA.length ? partsA[i] : "0", i < partsB.length ? partsB[i] : "0");
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+        }
+        return compareNaturally(a, b);
+    }
+
+    // Numbers in the names are compared by their value, e.g. V2__rooms.sql comes before V10__bookings.sql.
+    private static int compareNaturally(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            if (Character.isDigit(a.charAt(i)) && Character.isDigit(b.charAt(j))) {
+                int numberStartA = i;
+                int numberStartB = j;
+                while (i < a.length() && Character.isDigit(a.charAt(i))) {
+                    i++;
+                }
+                while (j < b.length() && Character.isDigit(b.charAt(j))) {
+                    j++;
+                }
+                String numberA = a.substring(numberStartA, i).replaceFirst("^0+(?=.)", "");
+                String numberB = b.substring(numberStartB, j).replaceFirst("^0+(?=.)", "");
+                int comparison = numberA.length() != numberB.length()
+                        ? Integer.compare(numberA.length(), numberB.length()) : numberA.compareTo(numberB);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            else {
+                if (a.charAt(i) != b.charAt(j)) {
+                    return Character.compare(a.charAt(i), b.charAt(j));
+                }
+                i++;
+                j++;
+            }
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.util.List;
+
+public interface SchemaListener {
+
+    void onTable(String tableName);
+
+    // CREATE TABLE IF NOT EXISTS is ignored for a table created before.
+    default void onTable(String tableName, boolean ifNotExists) {
+        onTable(tableName);
+    }
+
+    void onColumn(String tableName, String columnName, String columnType, String definition);
+
+    void onTableEnd(String tableName);
+
+    // Constraint and index events arrive after the columns of their table, either before its end
+    // (CREATE TABLE) or later (ALTER TABLE, CREATE INDEX). A constraint or index without a name has a null name.
+    default void onPrimaryKey(String tableName, List<String> columnNames) {
+    }
+
+    default void onForeignKey(String tableName, List<String> columnNames, String referencedTableName) {
+    }
+
+    default void onUniqueConstraint(String tableName, String constraintName, List<String> columnNames) {
+    }
+
+    default void onIndex(String tableName, String indexName, List<String> columnNames, boolean unique) {
+    }
+
+    // Changes made by migration scripts (ALTER TABLE, DROP TABLE) to the tables created before. Optional changes
+    // (IF EXISTS, IF NOT EXISTS) are left out silently when the table or column is missing, or already there.
+    default void onColumnAdded(String tableName, String columnName, String columnType, String definition, boolean optional) {
+    }
+
+    default void onColumnDropped(String tableName, String columnName, boolean optional) {
+    }
+
+    default void onColumnTypeChanged(String tableName, String columnName, String columnType, String typeDefinition, boolean optional) {
+    }
+
+    // SET DEFAULT, or DROP DEFAULT with a null default. pg_dump sets the nextval default of a serial column this way.
+    default void onColumnDefaultChanged(String tableName, String columnName, String defaultExpression, boolean optional) {
+    }
+
+    // ADD GENERATED ... AS IDENTITY [(sequence options)], or DROP IDENTITY with a null definition. pg_dump makes the
+    // identity columns this way.
+    default void onColumnIdentityChanged(String tableName, String columnName, String identityDefinition, boolean optional) {
+    }
+
+    default void onColumnRenamed(String tableName, String columnName, String newColumnName, boolean optional) {
+    }
+
+    default void onTableRenamed(String tableName, String newTableName, boolean optional) {
+    }
+
+    default void onTableDropped(String tableName, boolean optional) {
+    }
+
+    // The whole schema has been read.
+    default void onSchemaEnd() {
+    }
+}
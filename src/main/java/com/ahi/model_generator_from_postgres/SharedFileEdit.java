@@ -0,0 +1,115 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Collects the lines every table adds to a file shared by all tables (e.g. the NgRx store files),
+// so that the file is read, modified and written only once per run.
+public class SharedFileEdit {
+
+    private static class Insertion {
+        private final String anchorLine;
+        private final int offset;
+        private final List<String> lines;
+
+        private Insertion(String anchorLine, int offset, List<String> lines) {
+            this.anchorLine = anchorLine;
+            this.offset = offset;
+            this.lines = lines;
+        }
+    }
+
+    private final String path;
+    private final Path sourceFile;
+    private final List<String> prependedLines = new ArrayList<>();
+    private final Set<String> prependedLinesIfAbsent = new LinkedHashSet<>();
+    private final List<String> appendedLines = new ArrayList<>();
+    private final List<Insertion> insertions = new ArrayList<>();
+
+    // The original content is read from the source file, the modified file is written to the path of the output.
+    public SharedFileEdit(String path, Path sourceFile) {
+        this.path = path;
+        this.sourceFile = sourceFile;
+    }
+
+    public void prepend(String line) {
+        prependedLines.add(line);
+    }
+
+    // For lines (e.g. imports) needed by several tables, which must be in the file only once.
+    public void prependIfAbsent(String line) {
+        prependedLinesIfAbsent.add(line);
+    }
+
+    public void append(String... lines) {
+        appendedLines.addAll(Arrays.asList(lines));
+    }
+
+    // Inserts the lines before the line found at the given offset from the anchor line of the original file.
+    // (offset 1 inserts right after the anchor line)
+    public void insertAt(String anchorLine, int offset, List<String> lines) {
+        insertions.add(new Insertion(anchorLine, offset, lines));
+    }
+
+    public void insertAt(String anchorLine, int offset, String... lines) {
+        insertAt(anchorLine, offset, Arrays.asList(lines));
+    }
+
+    public boolean isEmpty() {
+        return prependedLines.isEmpty() && prependedLinesIfAbsent.isEmpty() && appendedLines.isEmpty() && insertions.isEmpty();
+    }
+
+    public void apply(OutputWriter outputWriter) throws IOException {
+        if (isEmpty()) {
+            return;
+        }
+        // Like a missing anchor line, a missing file only loses its own additions, the rest of the run goes on.
+        if (!Files.exists(sourceFile)) {
+            int lineCount = prependedLines.size() + prependedLinesIfAbsent.size() + appendedLines.size()
+                    + insertions.stream().mapToInt(x -> x.lines.size()).sum();
+            System.out.println(sourceFile + " not found, skipping " + lineCount + " line(s): add them by hand.");
+            return;
+        }
+        List<String> originalLines = Files.readAllLines(sourceFile, StandardCharsets.UTF_8);
+        Map<Integer, List<String>> linesByInsertionIndex = new HashMap<>();
+        int insertedLineCount = prependedLines.size() + appendedLines.size();
+        for (Insertion insertion : insertions) {
+            int anchorIndex = originalLines.indexOf(insertion.anchorLine);
+            if (anchorIndex < 0) {
+                System.out.println("Line \"" + insertion.anchorLine + "\" not found in " + sourceFile + ", skipping "
+                        + insertion.lines.size() + " line(s).");
+                continue;
+            }
+            int insertionIndex = Math.max(0, Math.min(originalLines.size(), anchorIndex + insertion.offset));
+            linesByInsertionIndex.computeIfAbsent(insertionIndex, x -> new ArrayList<>()).addAll(insertion.lines);
+            insertedLineCount += insertion.lines.size();
+        }
+        List<String> fileContent = new ArrayList<>(originalLines.size() + insertedLineCount + prependedLinesIfAbsent.size());
+        for (String line : prependedLinesIfAbsent) {
+            if (!originalLines.contains(line) && !prependedLines.contains(line)) {
+                fileContent.add(line);
+            }
+        }
+        fileContent.addAll(prependedLines);
+        for (int i = 0; i <= originalLines.size(); i++) {
+            List<String> insertedLines = linesByInsertionIndex.get(i);
+            if (insertedLines != null) {
+                fileContent.addAll(insertedLines);
+            }
+            if (i < originalLines.size()) {
+                fileContent.add(originalLines.get(i));
+            }
+        }
+        fileContent.addAll(appendedLines);
+        outputWriter.write(path, String.join(System.lineSeparator(), fileContent) + System.lineSeparator());
+    }
+}
@@ -0,0 +1,766 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+// Single pass tokenizer over a memory-mapped SQL file (or SQL already in memory). Only the tokens of the statements we are interested in
+// (CREATE TABLE, ALTER TABLE, DROP TABLE, CREATE INDEX) are kept, every other statement is skipped token by token, so the memory
+// use does not depend on the size of the file.
+public class SqlTokenizer {
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int EOF = -1;
+    private static final Set<String> TABLE_MODIFIERS = Set.of("GLOBAL", "LOCAL", "TEMP", "TEMPORARY", "UNLOGGED");
+    private static final Set<String> TABLE_CONSTRAINT_KEYWORDS = Set.of("CONSTRAINT", "PRIMARY", "UNIQUE", "FOREIGN",
+            "CHECK", "EXCLUDE", "LIKE");
+
+    private enum TokenType { WORD, QUOTED_IDENTIFIER, STRING, NUMBER, DOLLAR_QUOTED, SYMBOL }
+
+    private static class Token {
+        private TokenType type;
+        private char symbol;
+        private String text;
+    }
+
+    private final FileChannel channel;
+    private final long windowSize;
+    private final long size;
+    private ByteBuffer window;
+    private long windowStart;
+    private byte[] tokenBytes = new byte[256];
+    private int tokenLength;
+    private final Token skippedToken = new Token();
+
+    private SqlTokenizer(FileChannel channel, long windowSize) throws IOException {
+        this.channel = channel;
+        this.windowSize = windowSize;
+        this.size = channel.size();
+        map(0);
+    }
+
+    private SqlTokenizer(ByteBuffer sql) {
+        this.channel = null;
+        this.windowSize = sql.remaining();
+        this.size = sql.remaining();
+        this.window = sql.slice();
+    }
+
+    public static void parse(Path sqlFile, SchemaListener listener) throws IOException {
+        parse(sqlFile, listener, WINDOW_SIZE);
+    }
+
+    // A small window lets the tests cross window boundaries (which real files only do above 64 MB).
+    static void parse(Path sqlFile, SchemaListener listener, long windowSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(sqlFile, StandardOpenOption.READ)) {
+            new SqlTokenizer(channel, windowSize).parseStatements(listener);
+        }
+        listener.onSchemaEnd();
+    }
+
+    // E.g. the definitions read from a pg_dump archive.
+    public static void parse(ByteBuffer sql, SchemaListener listener) throws IOException {
+        new SqlTokenizer(sql).parseStatements(listener);
+        listener.onSchemaEnd();
+    }
+
+    private void parseStatements(SchemaListener listener) throws IOException {
+        List<Token> statement = new ArrayList<>();
+        boolean collecting = true;
+        while (true) {
+            skipWhitespaceAndComments();
+            if (statement.isEmpty() && peek(0) == '\\') {
+                // psql meta-command, e.g. \connect in the output of pg_dump
+                skipLine();
+                continue;
+            }
+            Token token = nextToken(collecting);
+            if (token == null || token.type == TokenType.SYMBOL && token.symbol == ';') {
+                if (collecting && !statement.isEmpty()) {
+                    processStatement(statement, listener);
+                }
+                if (token == null) {
+                    return;
+                }
+                statement.clear();
+                collecting = true;
+                continue;
+            }
+            if (collecting) {
+                statement.add(token);
+                collecting = isInteresting(statement);
+                if (!collecting) {
+                    statement.clear();
+                }
+            }
+        }
+    }
+
+    private boolean isInteresting(List<Token> statement) {
+        String firstWord = word(statement.get(0));
+        if ("COPY".equals(firstWord)) {
+            return true;
+        }
+        if ("ALTER".equals(firstWord) || "DROP".equals(firstWord)) {
+            return statement.size() == 1 || "TABLE".equals(word(statement.get(1)));
+        }
+        if (!"CREATE".equals(firstWord)) {
+            return false;
+        }
+        for (int i = 1; i < statement.size(); i++) {
+            String word = word(statement.get(i));
+            if ("TABLE".equals(word) || "INDEX".equals(word)) {
+                return true;
+            }
+            if (!TABLE_MODIFIERS.contains(word) && !"UNIQUE".equals(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void processStatement(List<Token> statement, SchemaListener listener) throws IOException {
+        if ("COPY".equals(word(statement.get(0)))) {
+            if (statement.stream().anyMatch(x -> "STDIN".equals(word(x)))) {
+                skipCopyData();
+            }
+            return;
+        }
+        if ("ALTER".equals(word(statement.get(0)))) {
+            processAlterTable(statement, listener);
+            return;
+        }
+        if ("DROP".equals(word(statement.get(0)))) {
+            processDropTable(statement, listener);
+            return;
+        }
+        int i = 1;
+        while (i < statement.size() && !"TABLE".equals(word(statement.get(i))) && !"INDEX".equals(word(statement.get(i)))) {
+            i++;
+        }
+        if (i < statement.size() && "INDEX".equals(word(statement.get(i)))) {
+            processCreateIndex(statement, i + 1, "UNIQUE".equals(word(statement.get(1))), listener);
+            return;
+        }
+        i++;
+        boolean ifNotExists = i + 2 < statement.size() && "IF".equals(word(statement.get(i)));
+        if (ifNotExists) {
+            i += 3;
+        }
+        if (i >= statement.size()) {
+            return;
+        }
+        i = skipQualifiedName(statement, i);
+        String tableName = statement.get(i - 1).text;
+        if (i >= statement.size() || !isSymbol(statement.get(i), '(')) {
+            return; // CREATE TABLE ... AS, PARTITION OF, OF type: there are no column definitions to read
+        }
+        listener.onTable(tableName, ifNotExists);
+        int depth = 0;
+        int itemStart = ++i;
+        for (; i < statement.size(); i++) {
+            Token token = statement.get(i);
+            if (isSymbol(token, '(')) {
+                depth++;
+            }
+            else if (isSymbol(token, ')') && depth-- == 0) {
+                processTableElement(tableName, statement.subList(itemStart, i), listener);
+                break;
+            }
+            else if (isSymbol(token, ',') && depth == 0) {
+                processTableElement(tableName, statement.subList(itemStart, i), listener);
+                itemStart = i + 1;
+            }
+        }
+        listener.onTableEnd(tableName);
+    }
+
+    private void processTableElement(String tableName, List<Token> element, SchemaListener listener) {
+        if (element.isEmpty()) {
+            return;
+        }
+        if (TABLE_CONSTRAINT_KEYWORDS.contains(word(element.get(0)))) {
+            processConstraint(tableName, element, listener);
+            return;
+        }
+        if (element.size() < 2) {
+            return;
+        }
+        listener.onColumn(tableName, element.get(0).text, element.get(1).text, normalize(element.subList(1, element.size())));
+        processColumnConstraints(tableName, element, listener);
+    }
+
+    // Column constraints, e.g. id serial PRIMARY KEY, room_type_id integer REFERENCES room_type
+    private static void processColumnConstraints(String tableName, List<Token> element, SchemaListener listener) {
+        List<String> columnNames = Collections.singletonList(element.get(0).text);
+        int depth = 0;
+        for (int i = 2; i < element.size(); i++) {
+            Token token = element.get(i);
+            String word = word(token);
+            if (isSymbol(token, '(')) {
+                depth++;
+            }
+            else if (isSymbol(token, ')')) {
+                depth--;
+            }
+            else if (depth > 0) {
+                continue;
+            }
+            else if ("PRIMARY".equals(word) && i + 1 < element.size() && "KEY".equals(word(element.get(i + 1)))) {
+                listener.onPrimaryKey(tableName, columnNames);
+            }
+            else if ("UNIQUE".equals(word)) {
+                String constraintName = i >= 2 && "CONSTRAINT".equals(word(element.get(i - 2))) ? element.get(i - 1).text : null;
+                listener.onUniqueConstraint(tableName, constraintName, columnNames);
+            }
+            else if ("REFERENCES".equals(word) && i + 1 < element.size()) {
+                listener.onForeignKey(tableName, columnNames, element.get(skipQualifiedName(element, i + 1) - 1).text);
+            }
+        }
+    }
+
+    // A table constraint ([CONSTRAINT name] PRIMARY KEY / UNIQUE / FOREIGN KEY ...), other constraints are ignored.
+    private static void processConstraint(String tableName, List<Token> tokens, SchemaListener listener) {
+        int i = 0;
+        String constraintName = null;
+        if ("CONSTRAINT".equals(word(tokens.get(0))) && tokens.size() > 2) {
+            constraintName = tokens.get(1).text;
+            i = 2;
+        }
+        String kind = word(tokens.get(i));
+        int columnListStart = indexOfSymbol(tokens, '(', i);
+        if (columnListStart < 0) {
+            return; // e.g. PRIMARY KEY USING INDEX in ALTER TABLE
+        }
+        List<String> columnNames = columnNames(tokens, columnListStart);
+        if (columnNames.isEmpty()) {
+            return;
+        }
+        if ("PRIMARY".equals(kind)) {
+            listener.onPrimaryKey(tableName, columnNames);
+        }
+        else if ("UNIQUE".equals(kind)) {
+            listener.onUniqueConstraint(tableName, constraintName, columnNames);
+        }
+        else if ("FOREIGN".equals(kind)) {
+            for (int j = closingParenthesis(tokens, columnListStart) + 1; j + 1 < tokens.size(); j++) {
+                if ("REFERENCES".equals(word(tokens.get(j)))) {
+                    listener.onForeignKey(tableName, columnNames, tokens.get(skipQualifiedName(tokens, j + 1) - 1).text);
+                    return;
+                }
+            }
+        }
+    }
+
+    // ALTER TABLE [IF EXISTS] [ONLY] name [*] action [, ...]: the actions adding constraints and changing columns
+    // are read.
+    private static void processAlterTable(List<Token> statement, SchemaListener listener) {
+        int i = 2;
+        boolean ifExists = i + 1 < statement.size() && "IF".equals(word(statement.get(i)));
+        if (ifExists) {
+            i += 2;
+        }
+        if (i < statement.size() && "ONLY".equals(word(statement.get(i)))) {
+            i++;
+        }
+        if (i >= statement.size()) {
+            return;
+        }
+        i = skipQualifiedName(statement, i);
+        String tableName = statement.get(i - 1).text;
+        if (i < statement.size() && isSymbol(statement.get(i), '*')) {
+            i++;
+        }
+        for (List<Token> action : splitAtTopLevelCommas(statement, i, statement.size())) {
+            if (action.size() > 1) {
+                processAlterTableAction(tableName, action, ifExists, listener);
+            }
+        }
+    }
+
+    //   ADD [COLUMN] [IF NOT EXISTS] column type ... / ADD table constraint
+    //   DROP [COLUMN] [IF EXISTS] column
+    //   ALTER [COLUMN] column [SET DATA] TYPE type ...
+    //   ALTER [COLUMN] column SET DEFAULT expression / DROP DEFAULT
+    //   ALTER [COLUMN] column ADD GENERATED { ALWAYS | BY DEFAULT } AS IDENTITY [(sequence options)] / DROP IDENTITY
+    //   RENAME [COLUMN] column TO new_column / RENAME TO new_name
+    private static void processAlterTableAction(String tableName, List<Token> action, boolean ifExists, SchemaListener listener) {
+        String kind = word(action.get(0));
+        int i = 1;
+        boolean column = "COLUMN".equals(word(action.get(i)));
+        if (column) {
+            i++;
+        }
+        if (i >= action.size() || !column && "CONSTRAINT".equals(word(action.get(i))) && !"ADD".equals(kind)) {
+            return;
+        }
+        if ("ADD".equals(kind)) {
+            if (!column && TABLE_CONSTRAINT_KEYWORDS.contains(word(action.get(i)))) {
+                processConstraint(tableName, action.subList(i, action.size()), listener);
+                return;
+            }
+            boolean optional = ifExists;
+            if (i + 2 < action.size() && "IF".equals(word(action.get(i)))) {
+                optional = true;
+                i += 3;
+            }
+            List<Token> element = action.subList(i, action.size());
+            if (element.size() >= 2) {
+                listener.onColumnAdded(tableName, element.get(0).text, element.get(1).text,
+                        normalize(element.subList(1, element.size())), optional);
+                processColumnConstraints(tableName, element, listener);
+            }
+        }
+        else if ("DROP".equals(kind)) {
+            boolean optional = ifExists;
+            if (i + 1 < action.size() && "IF".equals(word(action.get(i)))) {
+                optional = true;
+                i += 2;
+            }
+            if (i < action.size()) {
+                listener.onColumnDropped(tableName, action.get(i).text, optional);
+            }
+        }
+        else if ("ALTER".equals(kind) && i + 2 < action.size()) {
+            String columnName = action.get(i++).text;
+            if ("DEFAULT".equals(word(action.get(i + 1)))) {
+                if ("SET".equals(word(action.get(i))) && i + 2 < action.size()) {
+                    listener.onColumnDefaultChanged(tableName, columnName, normalize(action.subList(i + 2, action.size())), ifExists);
+                }
+                else if ("DROP".equals(word(action.get(i)))) {
+                    listener.onColumnDefaultChanged(tableName, columnName, null, ifExists);
+                }
+                return;
+            }
+            if ("ADD".equals(word(action.get(i))) && "GENERATED".equals(word(action.get(i + 1)))) {
+                listener.onColumnIdentityChanged(tableName, columnName, normalize(action.subList(i + 1, action.size())), ifExists);
+                return;
+            }
+            if ("DROP".equals(word(action.get(i))) && "IDENTITY".equals(word(action.get(i + 1)))) {
+                listener.onColumnIdentityChanged(tableName, columnName, null, ifExists);
+                return;
+            }
+            if ("SET".equals(word(action.get(i))) && "DATA".equals(word(action.get(i + 1)))) {
+                i += 2;
+            }
+            if (i + 1 >= action.size() || !"TYPE".equals(word(action.get(i)))) {
+                return; // SET NOT NULL, SET STATISTICS, ...
+            }
+            int typeStart = ++i;
+            while (i < action.size() && !"USING".equals(word(action.get(i))) && !"COLLATE".equals(word(action.get(i)))) {
+                i++;
+            }
+            listener.onColumnTypeChanged(tableName, columnName, action.get(typeStart).text,
+                    normalize(action.subList(typeStart, i)), ifExists);
+        }
+        else if ("RENAME".equals(kind)) {
+            if ("TO".equals(word(action.get(i))) && i + 1 < action.size()) {
+                listener.onTableRenamed(tableName, action.get(i + 1).text, ifExists);
+            }
+            else if (i + 2 < action.size() && "TO".equals(word(action.get(i + 1)))) {
+                listener.onColumnRenamed(tableName, action.get(i).text, action.get(i + 2).text, ifExists);
+            }
+        }
+    }
+
+    // DROP TABLE [IF EXISTS] name [, ...] [CASCADE | RESTRICT]
+    private static void processDropTable(List<Token> statement, SchemaListener listener) {
+        int i = 2;
+        boolean ifExists = i + 1 < statement.size() && "IF".equals(word(statement.get(i)));
+        if (ifExists) {
+            i += 2;
+        }
+        for (List<Token> element : splitAtTopLevelCommas(statement, i, statement.size())) {
+            if (!element.isEmpty()) {
+                listener.onTableDropped(element.get(skipQualifiedName(element, 0) - 1).text, ifExists);
+            }
+        }
+    }
+
+    // CREATE [UNIQUE] INDEX [CONCURRENTLY] [[IF NOT EXISTS] name] ON [ONLY] table [USING method] (column [, ...]) ...
+    // Only indexes of plain columns are read, expression and partial indexes can not be described by JPA.
+    private static void processCreateIndex(List<Token> statement, int i, boolean unique, SchemaListener listener) {
+        if (i < statement.size() && "CONCURRENTLY".equals(word(statement.get(i)))) {
+            i++;
+        }
+        if (i + 2 < statement.size() && "IF".equals(word(statement.get(i)))) {
+            i += 3;
+        }
+        String indexName = null;
+        if (i < statement.size() && !"ON".equals(word(statement.get(i)))) {
+            indexName = statement.get(i++).text;
+        }
+        if (i >= statement.size() || !"ON".equals(word(statement.get(i)))) {
+            return;
+        }
+        i++;
+        if (i < statement.size() && "ONLY".equals(word(statement.get(i)))) {
+            i++;
+        }
+        if (i >= statement.size()) {
+            return;
+        }
+        i = skipQualifiedName(statement, i);
+        String tableName = statement.get(i - 1).text;
+        int columnListStart = indexOfSymbol(statement, '(', i);
+        if (columnListStart < 0) {
+            return;
+        }
+        int columnListEnd = closingParenthesis(statement, columnListStart);
+        List<String> columnNames = new ArrayList<>();
+        for (List<Token> element : splitAtTopLevelCommas(statement, columnListStart + 1, columnListEnd)) {
+            boolean plainColumn = !element.isEmpty() && (element.get(0).type == TokenType.WORD
+                    || element.get(0).type == TokenType.QUOTED_IDENTIFIER)
+                    && element.stream().noneMatch(x -> isSymbol(x, '('));
+            if (!plainColumn) {
+                return;
+            }
+            columnNames.add(element.get(0).text);
+        }
+        for (int j = columnListEnd + 1; j < statement.size(); j++) {
+            if ("WHERE".equals(word(statement.get(j)))) {
+                return;
+            }
+        }
+        if (!columnNames.isEmpty()) {
+            listener.onIndex(tableName, indexName, columnNames, unique);
+        }
+    }
+
+    // Index after a possibly schema qualified name starting at the given index, the last token of the name is the
+    // name without the schema.
+    private static int skipQualifiedName(List<Token> tokens, int i) {
+        i++;
+        while (i + 1 < tokens.size() && isSymbol(tokens.get(i), '.')) {
+            i += 2;
+        }
+        return Math.min(i, tokens.size());
+    }
+
+    private static int indexOfSymbol(List<Token> tokens, char symbol, int from) {
+        for (int i = from; i < tokens.size(); i++) {
+            if (isSymbol(tokens.get(i), symbol)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int closingParenthesis(List<Token> tokens, int openingParenthesis) {
+        int depth = 0;
+        for (int i = openingParenthesis; i < tokens.size(); i++) {
+            if (isSymbol(tokens.get(i), '(')) {
+                depth++;
+            }
+            else if (isSymbol(tokens.get(i), ')') && --depth == 0) {
+                return i;
+            }
+        }
+        return tokens.size();
+    }
+
+    // The first token of every element of a parenthesized list, e.g. the column names of (a, b).
+    private static List<String> columnNames(List<Token> tokens, int openingParenthesis) {
+        List<String> columnNames = new ArrayList<>();
+        for (List<Token> element : splitAtTopLevelCommas(tokens, openingParenthesis + 1, closingParenthesis(tokens, openingParenthesis))) {
+            if (!element.isEmpty()) {
+                columnNames.add(element.get(0).text);
+            }
+        }
+        return columnNames;
+    }
+
+    private static List<List<Token>> splitAtTopLevelCommas(List<Token> tokens, int start, int end) {
+        List<List<Token>> elements = new ArrayList<>();
+        int depth = 0;
+        int elementStart = start;
+        for (int i = start; i < end; i++) {
+            if (isSymbol(tokens.get(i), '(')) {
+                depth++;
+            }
+            else if (isSymbol(tokens.get(i), ')')) {
+                depth--;
+            }
+            else if (isSymbol(tokens.get(i), ',') && depth == 0) {
+                elements.add(tokens.subList(elementStart, i));
+                elementStart = i + 1;
+            }
+        }
+        if (elementStart < end) {
+            elements.add(tokens.subList(elementStart, end));
+        }
+        return elements;
+    }
+
+    private static String normalize(List<Token> tokens) {
+        StringBuilder builder = new StringBuilder();
+        Token previous = null;
+        for (Token token : tokens) {
+            boolean noSpace = previous == null
+                    || isSymbol(previous, '(') || isSymbol(previous, '.')
+                    || isSymbol(token, ')') || isSymbol(token, ',') || isSymbol(token, '.') || isSymbol(token, '(')
+                    || isSymbol(token, '[') || isSymbol(token, ']') || isSymbol(previous, '[')
+                    || isSymbol(token, ':') || isSymbol(previous, ':');
+            if (!noSpace) {
+                builder.append(' ');
+            }
+            if (token.type == TokenType.QUOTED_IDENTIFIER) {
+                builder.append('"').append(token.text.replace("\"", "\"\"")).append('"');
+            }
+            else {
+                builder.append(token.text);
+            }
+            previous = token;
+        }
+        return builder.toString();
+    }
+
+    private static String word(Token token) {
+        return token.type == TokenType.WORD ? token.text.toUpperCase() : "";
+    }
+
+    private static boolean isSymbol(Token token, char symbol) {
+        return token.type == TokenType.SYMBOL && token.symbol == symbol;
+    }
+
+    private Token nextToken(boolean materialize) throws IOException {
+        int c = peek(0);
+        if (c == EOF) {
+            return null;
+        }
+        Token token = materialize ? new Token() : skippedToken;
+        tokenLength = 0;
+        if (c == '"') {
+            token.type = TokenType.QUOTED_IDENTIFIER;
+            advance(1);
+            readQuoted('"', false, materialize);
+        }
+        else if (c == '\'') {
+            token.type = TokenType.STRING;
+            readQuoted('\'', false, materialize);
+        }
+        else if ((c == 'E' || c == 'e') && peek(1) == '\'') {
+            token.type = TokenType.STRING;
+            append(c, materialize);
+            advance(1);
+            readQuoted('\'', true, materialize);
+        }
+        else if (c == '$' && dollarTagLength() > 0) {
+            token.type = TokenType.DOLLAR_QUOTED;
+            readDollarQuoted(materialize);
+        }
+        else if (isIdentifierStart(c)) {
+            token.type = TokenType.WORD;
+            while (isIdentifierPart(peek(0))) {
+                append(peek(0), materialize);
+                advance(1);
+            }
+        }
+        else if (c >= '0' && c <= '9') {
+            token.type = TokenType.NUMBER;
+            while (isIdentifierPart(peek(0)) || peek(0) == '.' && peek(1) >= '0' && peek(1) <= '9') {
+                append(peek(0), materialize);
+                advance(1);
+            }
+        }
+        else {
+            token.type = TokenType.SYMBOL;
+            token.symbol = (char) c;
+            append(c, materialize);
+            advance(1);
+        }
+        token.text = materialize ? new String(tokenBytes, 0, tokenLength, StandardCharsets.UTF_8) : null;
+        return token;
+    }
+
+    // Reads a quoted identifier or string literal, a doubled quote character stands for the quote itself.
+    // The opening quote of string literals is kept in the token, the quotes of identifiers are not.
+    private void readQuoted(char quote, boolean backslashEscapes, boolean materialize) throws IOException {
+        boolean keepQuotes = quote == '\'';
+        if (keepQuotes) {
+            append(quote, materialize);
+            advance(1);
+        }
+        while (true) {
+            int c = peek(0);
+            if (c == EOF) {
+                return;
+            }
+            if (backslashEscapes && c == '\\' && peek(1) != EOF) {
+                append(c, materialize);
+                append(peek(1), materialize);
+                advance(2);
+            }
+            else if (c == quote && peek(1) == quote) {
+                append(c, materialize);
+                if (keepQuotes) {
+                    append(c, materialize);
+                }
+                advance(2);
+            }
+            else if (c == quote) {
+                if (keepQuotes) {
+                    append(c, materialize);
+                }
+                advance(1);
+                return;
+            }
+            else {
+                append(c, materialize);
+                advance(1);
+            }
+        }
+    }
+
+    // Length of the $tag$ delimiter starting at the current position, or 0 if it is not a dollar quote (e.g. $1).
+    private int dollarTagLength() throws IOException {
+        int length = 1;
+        if (peek(length) != '$') {
+            if (!isIdentifierStart(peek(length))) {
+                return 0;
+            }
+            while (isIdentifierPart(peek(length)) && peek(length) != '$') {
+                length++;
+            }
+            if (peek(length) != '$') {
+                return 0;
+            }
+        }
+        return length + 1;
+    }
+
+    private void readDollarQuoted(boolean materialize) throws IOException {
+        int tagLength = dollarTagLength();
+        byte[] tag = new byte[tagLength];
+        for (int i = 0; i < tagLength; i++) {
+            tag[i] = (byte) peek(i);
+            append(peek(i), materialize);
+        }
+        advance(tagLength);
+        while (peek(0) != EOF) {
+            if (peek(0) == '$' && matches(tag)) {
+                for (byte b : tag) {
+                    append(b, materialize);
+                }
+                advance(tagLength);
+                return;
+            }
+            append(peek(0), materialize);
+            advance(1);
+        }
+    }
+
+    private boolean matches(byte[] bytes) throws IOException {
+        for (int i = 0; i < bytes.length; i++) {
+            if (peek(i) != (bytes[i] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipWhitespaceAndComments() throws IOException {
+        while (true) {
+            int c = peek(0);
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f') {
+                advance(1);
+            }
+            else if (c == '-' && peek(1) == '-') {
+                skipLine();
+            }
+            else if (c == '/' && peek(1) == '*') {
+                // Block comments nest in PostgreSQL.
+                int depth = 0;
+                do {
+                    if (peek(0) == '/' && peek(1) == '*') {
+                        depth++;
+                        advance(2);
+                    }
+                    else if (peek(0) == '*' && peek(1) == '/') {
+                        depth--;
+                        advance(2);
+                    }
+                    else {
+                        advance(1);
+                    }
+                } while (depth > 0 && peek(0) != EOF);
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = peek(0)) != EOF && c != '\n') {
+            advance(1);
+        }
+        advance(1);
+    }
+
+    // The rows of COPY ... FROM stdin follow the statement until a line containing only \.
+    private void skipCopyData() throws IOException {
+        skipLine();
+        while (peek(0) != EOF) {
+            boolean endMarker = peek(0) == '\\' && peek(1) == '.'
+                    && (peek(2) == '\n' || peek(2) == '\r' || peek(2) == EOF);
+            skipLine();
+            if (endMarker) {
+                return;
+            }
+        }
+    }
+
+    private static boolean isIdentifierStart(int c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c >= 0x80;
+    }
+
+    private static boolean isIdentifierPart(int c) {
+        return isIdentifierStart(c) || c >= '0' && c <= '9' || c == '$';
+    }
+
+    private void append(int c, boolean materialize) {
+        if (!materialize) {
+            return;
+        }
+        if (tokenLength == tokenBytes.length) {
+            tokenBytes = Arrays.copyOf(tokenBytes, tokenLength * 2);
+        }
+        tokenBytes[tokenLength++] = (byte) c;
+    }
+
+    private int peek(int offset) throws IOException {
+        if (window.position() + offset >= window.limit()) {
+            if (windowStart + window.limit() >= size) {
+                return EOF;
+            }
+            map(windowStart + window.position());
+            if (window.position() + offset >= window.limit()) {
+                return EOF;
+            }
+        }
+        return window.get(window.position() + offset) & 0xFF;
+    }
+
+    private void advance(int count) throws IOException {
+        // Past the end of the input (e.g. a final -- comment) there is nothing left to map.
+        if (window.position() + count > window.limit() && windowStart + window.limit() < size) {
+            map(windowStart + window.position());
+        }
+        window.position(Math.min(window.position() + count, window.limit()));
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    }
+}
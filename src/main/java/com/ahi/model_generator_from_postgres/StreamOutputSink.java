@@ -0,0 +1,32 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+// Prints every generated file to a stream (e.g. stdout), each after a "==> path <==" line.
+public class StreamOutputSink implements OutputSink {
+
+    private final PrintStream out;
+
+    public StreamOutputSink(OutputStream outputStream) {
+        out = new PrintStream(outputStream, false, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean write(String path, byte[] content) {
+        synchronized (out) {
+            out.println("==> " + path + " <==");
+            out.write(content, 0, content.length);
+            if (content.length > 0 && content[content.length - 1] != '\n') {
+                out.println();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        out.flush();
+    }
+}
@@ -0,0 +1,228 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+// A minimal Mustache-like template, compiled once into literal, variable and section segments:
+//   {{name}}               the value of name, looked up in the current item of the enclosing sections, then outwards
+//   {{.}}                  the current item itself (e.g. a line of a list of strings)
+//   {{#name}}...{{/name}}  repeated for every item of a collection, rendered once for true or a non-empty string
+//   {{^name}}...{{/name}}  rendered when name is missing, false, empty or an empty collection
+// A line containing nothing but a section tag is removed entirely. Line breaks are rendered as the platform's
+// line separator.
+public class Template {
+
+    private static final int MAX_SECTION_DEPTH = 16;
+
+    private interface Segment {
+        void render(Object[] scopes, int depth, StringBuilder out);
+    }
+
+    private static class Literal implements Segment {
+        private final String text;
+
+        private Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(Object[] scopes, int depth, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    private static class Variable implements Segment {
+        private final String name;
+
+        private Variable(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void render(Object[] scopes, int depth, StringBuilder out) {
+            Object value = lookup(name, scopes, depth);
+            if (value != null) {
+                out.append(value);
+            }
+        }
+    }
+
+    private static class Section implements Segment {
+        private final String name;
+        private final boolean inverted;
+        private final List<Segment> segments = new ArrayList<>();
+
+        private Section(String name, boolean inverted) {
+            this.name = name;
+            this.inverted = inverted;
+        }
+
+        @Override
+        public void render(Object[] scopes, int depth, StringBuilder out) {
+            Object value = lookup(name, scopes, depth);
+            if (inverted) {
+                if (!isTruthy(value)) {
+                    renderSegments(segments, scopes, depth, out);
+                }
+            }
+            else if (value instanceof Collection) {
+                for (Object item : (Collection<?>) value) {
+                    scopes[depth + 1] = item;
+                    renderSegments(segments, scopes, depth + 1, out);
+                }
+            }
+            else if (isTruthy(value)) {
+                renderSegments(segments, scopes, depth, out);
+            }
+        }
+    }
+
+    private final String source;
+    private final List<Segment> segments;
+
+    private Template(String source, List<Segment> segments) {
+        this.source = source;
+        this.segments = segments;
+    }
+
+    // Templates in the overrides directory (if given) take precedence over the ones built into the generator.
+    public static Template load(String name, String overridesDirectory) throws IOException {
+        String fileName = name + ".tmpl";
+        if (overridesDirectory != null) {
+            Path overridePath = Path.of(overridesDirectory).resolve(fileName);
+            if (Files.exists(overridePath)) {
+                return compile(Files.readString(overridePath, StandardCharsets.UTF_8));
+            }
+        }
+        try (InputStream inputStream = Template.class.getResourceAsStream("/templates/" + fileName)) {
+            if (inputStream == null) {
+                throw new IOException("Template not found: " + fileName);
+            }
+            return compile(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    public static Template compile(String text) {
+        List<Segment> rootSegments = new ArrayList<>();
+        Deque<Section> openSections = new ArrayDeque<>();
+        String[] lines = text.replace("\r\n", "\n").split("\n", -1);
+        int lineCount = text.endsWith("\n") ? lines.length - 1 : lines.length; // the last line break of the file is not rendered
+        StringBuilder literal = new StringBuilder();
+        for (int lineIndex = 0; lineIndex < lineCount; lineIndex++) {
+            String line = lines[lineIndex];
+            String trimmedLine = line.trim();
+            boolean standaloneSectionTag = trimmedLine.startsWith("{{") && trimmedLine.endsWith("}}")
+                    && trimmedLine.indexOf("{{", 2) < 0 && trimmedLine.length() > 4
+                    && "#^/".indexOf(trimmedLine.charAt(2)) >= 0;
+            if (standaloneSectionTag) {
+                addSegments(trimmedLine, rootSegments, openSections, literal);
+                continue;
+            }
+            addSegments(line, rootSegments, openSections, literal);
+            if (lineIndex < lineCount - 1) {
+                literal.append(System.lineSeparator());
+            }
+        }
+        flushLiteral(literal, rootSegments, openSections);
+        if (!openSections.isEmpty()) {
+            throw new IllegalArgumentException("Section not closed: " + openSections.peek().name);
+        }
+        return new Template(text, rootSegments);
+    }
+
+    private static void addSegments(String text, List<Segment> rootSegments, Deque<Section> openSections, StringBuilder literal) {
+        int position = 0;
+        while (position < text.length()) {
+            int tagStart = text.indexOf("{{", position);
+            if (tagStart < 0) {
+                literal.append(text, position, text.length());
+                return;
+            }
+            int tagEnd = text.indexOf("}}", tagStart);
+            if (tagEnd < 0) {
+                throw new IllegalArgumentException("Tag not closed: " + text.substring(tagStart));
+            }
+            literal.append(text, position, tagStart);
+            flushLiteral(literal, rootSegments, openSections);
+            String tag = text.substring(tagStart + 2, tagEnd).trim();
+            char kind = tag.charAt(0);
+            if (kind == '#' || kind == '^') {
+                Section section = new Section(tag.substring(1).trim(), kind == '^');
+                currentSegments(rootSegments, openSections).add(section);
+                openSections.push(section);
+            }
+            else if (kind == '/') {
+                String name = tag.substring(1).trim();
+                if (openSections.isEmpty() || !openSections.peek().name.equals(name)) {
+                    throw new IllegalArgumentException("Unexpected end of section: " + name);
+                }
+                openSections.pop();
+            }
+            else {
+                currentSegments(rootSegments, openSections).add(new Variable(tag));
+            }
+            position = tagEnd + 2;
+        }
+    }
+
+    private static void flushLiteral(StringBuilder literal, List<Segment> rootSegments, Deque<Section> openSections) {
+        if (literal.length() > 0) {
+            currentSegments(rootSegments, openSections).add(new Literal(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    private static List<Segment> currentSegments(List<Segment> rootSegments, Deque<Section> openSections) {
+        return openSections.isEmpty() ? rootSegments : openSections.peek().segments;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void render(Map<String, ?> context, StringBuilder out) {
+        Object[] scopes = new Object[MAX_SECTION_DEPTH];
+        scopes[0] = context;
+        renderSegments(segments, scopes, 0, out);
+    }
+
+    private static void renderSegments(List<Segment> segments, Object[] scopes, int depth, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.render(scopes, depth, out);
+        }
+    }
+
+    private static Object lookup(String name, Object[] scopes, int depth) {
+        if (name.equals(".")) {
+            return scopes[depth];
+        }
+        for (int i = depth; i >= 0; i--) {
+            if (scopes[i] instanceof Map && ((Map<?, ?>) scopes[i]).containsKey(name)) {
+                return ((Map<?, ?>) scopes[i]).get(name);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTruthy(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Collection) {
+            return !((Collection<?>) value).isEmpty();
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() > 0;
+        }
+        return value != null;
+    }
+}
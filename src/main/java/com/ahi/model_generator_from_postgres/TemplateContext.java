@@ -0,0 +1,257 @@
+package com.ahi.model_generator_from_postgres;
+
+import com.google.common.base.CaseFormat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+// The values the templates can refer to, built once per table and shared by all of its templates.
+public class TemplateContext {
+
+    private TemplateContext() {
+    }
+
+    public static Map<String, Object> of(ClassModel classModel, Properties config) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("basePackage", config.getProperty("backendPackage", "com.ahi.prop_man"));
+        context.put("tableName", classModel.getLowerUnderscoreName());
+        context.put("className", classModel.getUpperCamelCaseName());
+        context.put("lowerCamelCaseName", classModel.getLowerCamelCaseName());
+        context.put("lowerHyphenName", classModel.getLowerHyphenName());
+        context.put("classNameInPlural", classModel.getUpperCamelCaseNameInPlural());
+        context.put("lowerCamelCaseNameInPlural", classModel.getLowerCamelCaseNameInPlural());
+        context.put("lowerHyphenNameInPlural", classModel.getLowerHyphenNameInPlural());
+        context.put("extendedClass", classModel.getExtendedClass());
+        context.put("extendedDtoClass", classModel.getExtendedDtoClass());
+        context.put("primaryKeyType", primaryKeyType(classModel));
+        context.put("idPropertyName", classModel.getExtendedClass() != null
+                ? "id" : primaryKeyProperty(classModel).getLowerCamelCaseName());
+        // Enum (lookup) tables hardly ever change, so they are cached on every level.
+        context.put("enumTable", "BaseEnumEntity".equals(classModel.getExtendedClass()));
+        context.put("enumCache", (Boolean) context.get("enumTable") && isEnumCacheEnabled(config));
+        context.put("enumCacheMaxAgeSeconds", config.getProperty("enumCacheMaxAgeSeconds", "0"));
+        context.put("streaming", isListed(classModel.getLowerUnderscoreName(), config.getProperty("streamingTables", "")));
+        context.put("streamFetchSize", config.getProperty("streamFetchSize", "1000"));
+        putPageKey(context, classModel, config);
+        putBulkWrites(context, classModel, config);
+        context.put("javaImportLines", new ArrayList<>(classModel.getJavaImportLines()));
+        context.put("hasJavaImportLines", !classModel.getJavaImportLines().isEmpty());
+        context.put("jsImportLines", new ArrayList<>(classModel.getJsImportLines()));
+        context.put("hasJsImportLines", !classModel.getJsImportLines().isEmpty());
+        ModelProperty sequenceIdProperty = sequenceIdProperty(classModel, config);
+        List<Map<String, Object>> properties = new ArrayList<>();
+        List<String> referenceAttributePaths = new ArrayList<>();
+        for (ModelProperty property : classModel.getProperties()) {
+            properties.add(of(property, property == sequenceIdProperty));
+            if (property.isReference()) {
+                referenceAttributePaths.add("\"" + property.getLowerCamelCaseName() + "\"");
+            }
+        }
+        context.put("properties", properties);
+        // The id of a mapped superclass can not get a generator per table, so an entity with a sequence generated
+        // id declares the properties of its base class itself.
+        if (sequenceIdProperty != null && classModel.getInheritedProperties().contains(sequenceIdProperty)) {
+            List<Map<String, Object>> entityProperties = new ArrayList<>();
+            for (ModelProperty property : classModel.getInheritedProperties()) {
+                entityProperties.add(of(property, property == sequenceIdProperty));
+            }
+            entityProperties.addAll(properties);
+            context.put("entityProperties", entityProperties);
+            context.put("entityExtendedClass", null);
+        }
+        else {
+            context.put("entityProperties", properties);
+            context.put("entityExtendedClass", classModel.getExtendedClass());
+        }
+        // The plain Java mapper copies the inherited properties as well.
+        List<Map<String, Object>> mappedProperties = new ArrayList<>();
+        for (ModelProperty property : classModel.getInheritedProperties()) {
+            mappedProperties.add(of(property, false));
+        }
+        mappedProperties.addAll(properties);
+        context.put("mappedProperties", mappedProperties);
+        context.put("summaryProperties", summaryProperties(classModel));
+        putIndexes(context, classModel);
+        context.put("allocationSize", config.getProperty("sequenceAllocationSize", "50"));
+        context.put("hasReferences", !referenceAttributePaths.isEmpty());
+        context.put("referenceAttributePaths", String.join(", ", referenceAttributePaths));
+        // Imports of the repository needed by more than one of its optional methods.
+        boolean bulkIdQuery = (Boolean) context.get("bulkWrites") && context.get("bulkIdGetter") != null;
+        context.put("repositoryUsesQuery", !referenceAttributePaths.isEmpty()
+                || (Boolean) context.get("keysetPagination") || (Boolean) context.get("streaming") || bulkIdQuery);
+        context.put("repositoryUsesParam", (Boolean) context.get("keysetPagination") || bulkIdQuery);
+        context.put("repositoryUsesQueryHints", (Boolean) context.get("enumCache") || (Boolean) context.get("streaming"));
+        return context;
+    }
+
+    static boolean isEnumCacheEnabled(Properties config) {
+        return Boolean.parseBoolean(config.getProperty("enumCache", "true"));
+    }
+
+    private static String primaryKeyType(ClassModel classModel) {
+        if (classModel.getExtendedClass() != null) {
+            return "Integer";
+        }
+        return primaryKeyProperty(classModel).getJavaEntityType();
+    }
+
+    // For a table without an inherited id: the single column primary key when the schema declares one,
+    // otherwise the first property should be the PK. A table without columns has none.
+    private static ModelProperty primaryKeyProperty(ClassModel classModel) {
+        if (classModel.getProperties().isEmpty()) {
+            throw new IllegalArgumentException("Table " + classModel.getLowerUnderscoreName() + " has no columns for an id.");
+        }
+        if (classModel.getPrimaryKeyColumns().size() == 1) {
+            String primaryKeyColumn = classModel.getPrimaryKeyColumns().get(0);
+            for (ModelProperty property : classModel.getProperties()) {
+                if (property.getLowerUnderscoreName().equals(primaryKeyColumn)) {
+                    return property;
+                }
+            }
+        }
+        return classModel.getProperties().get(0);
+    }
+
+    // Whether the table is in the comma separated list of table names.
+    private static boolean isListed(String tableName, String tableNames) {
+        for (String listedTableName : tableNames.split(",")) {
+            if (listedTableName.trim().equals(tableName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The columns of the listings: the inherited ones (id, name, label) and the ones of the table except references.
+    // The getters are named after the entity attributes (e.g. getIsActive), so that the projection is a closed one
+    // and only these columns are selected.
+    private static List<Map<String, Object>> summaryProperties(ClassModel classModel) {
+        List<Map<String, Object>> summaryProperties = new ArrayList<>();
+        List<ModelProperty> properties = new ArrayList<>(classModel.getInheritedProperties());
+        properties.addAll(classModel.getProperties());
+        for (ModelProperty property : properties) {
+            if (!property.isReference()) {
+                Map<String, Object> summaryProperty = new HashMap<>();
+                summaryProperty.put("entityType", property.getJavaEntityType());
+                summaryProperty.put("getterName", "get" + CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, property.getLowerCamelCaseName()));
+                summaryProperties.add(summaryProperty);
+            }
+        }
+        return summaryProperties;
+    }
+
+    // The primary key property generated by a sequence, when the entities are configured to use sequences.
+    static ModelProperty sequenceIdProperty(ClassModel classModel, Properties config) {
+        if (!Boolean.parseBoolean(config.getProperty("sequenceIds", "false"))) {
+            return null;
+        }
+        ModelProperty idProperty;
+        if (classModel.getExtendedClass() != null) {
+            idProperty = classModel.getInheritedProperties().get(0);
+        }
+        else if (!classModel.getProperties().isEmpty() && classModel.getPrimaryKeyColumns().size() <= 1) {
+            idProperty = primaryKeyProperty(classModel);
+        }
+        else {
+            return null;
+        }
+        return idProperty.getSequenceName() != null ? idProperty : null;
+    }
+
+    // Keyset pagination pages through the rows in the order of the primary key. It is generated when enabled in the
+    // configuration, except for enum tables (small enough to be loaded at once) and tables keyed by several columns
+    // or by a reference.
+    private static void putPageKey(Map<String, Object> context, ClassModel classModel, Properties config) {
+        boolean keysetPagination = Boolean.parseBoolean(config.getProperty("keysetPagination", "false"))
+                && !"BaseEnumEntity".equals(classModel.getExtendedClass())
+                && classModel.getPrimaryKeyColumns().size() <= 1;
+        if (keysetPagination && classModel.getExtendedClass() != null) {
+            context.put("pageKeyProperty", "id");
+            context.put("pageKeyGetter", "getId");
+            context.put("pageKeyType", "Integer");
+            context.put("pageKeyJsType", "number");
+        }
+        else if (keysetPagination && !classModel.getProperties().isEmpty() && !primaryKeyProperty(classModel).isReference()) {
+            ModelProperty primaryKeyProperty = primaryKeyProperty(classModel);
+            context.put("pageKeyProperty", primaryKeyProperty.getLowerCamelCaseName());
+            context.put("pageKeyGetter", "get" + primaryKeyProperty.getUpperCamelCaseName());
+            // Primitive types can not be type arguments of the page.
+            context.put("pageKeyType", primaryKeyProperty.getJavaEntityType().equals("int")
+                    ? "Integer" : primaryKeyProperty.getJavaEntityType());
+            context.put("pageKeyJsType", primaryKeyProperty.getJsType());
+        }
+        else {
+            keysetPagination = false;
+        }
+        context.put("keysetPagination", keysetPagination);
+        context.put("defaultPageSize", config.getProperty("keysetPageSize", "100"));
+    }
+
+    // Bulk create and update endpoints persisting the rows in chunks, not for enum tables (their cached list would have
+    // to be evicted). Before a chunk is updated, its rows are loaded by a single query, so merging them selects nothing
+    // more; this is left out for a table keyed by a reference.
+    private static void putBulkWrites(Map<String, Object> context, ClassModel classModel, Properties config) {
+        boolean bulkWrites = Boolean.parseBoolean(config.getProperty("bulkWrites", "false"))
+                && !"BaseEnumEntity".equals(classModel.getExtendedClass());
+        context.put("bulkWrites", bulkWrites);
+        context.put("bulkWriteChunkSize", config.getProperty("bulkWriteChunkSize", "50"));
+        context.put("serviceUsesEntityManager", bulkWrites || (Boolean) context.get("streaming"));
+        if (bulkWrites && classModel.getExtendedClass() != null) {
+            context.put("bulkIdGetter", "getId");
+            context.put("bulkIdType", "Integer");
+        }
+        else if (bulkWrites && !classModel.getProperties().isEmpty() && !primaryKeyProperty(classModel).isReference()) {
+            ModelProperty primaryKeyProperty = primaryKeyProperty(classModel);
+            context.put("bulkIdGetter", "get" + primaryKeyProperty.getUpperCamelCaseName());
+            context.put("bulkIdType", primaryKeyProperty.getJavaEntityType().equals("int")
+                    ? "Integer" : primaryKeyProperty.getJavaEntityType());
+        }
+        else {
+            context.put("bulkIdGetter", null);
+            context.put("bulkIdType", null);
+        }
+    }
+
+    // The @Index and @UniqueConstraint annotations of the entity, separated by commas.
+    private static void putIndexes(Map<String, Object> context, ClassModel classModel) {
+        List<Map<String, Object>> indexes = new ArrayList<>();
+        for (IndexModel index : classModel.getIndexes()) {
+            Map<String, Object> indexContext = new HashMap<>();
+            indexContext.put("name", index.getName());
+            indexContext.put("columnList", String.join(", ", index.getColumnNames()));
+            indexContext.put("unique", index.isUnique());
+            indexContext.put("separator", indexes.size() < classModel.getIndexes().size() - 1 ? "," : "");
+            indexes.add(indexContext);
+        }
+        List<Map<String, Object>> uniqueConstraints = new ArrayList<>();
+        for (IndexModel uniqueConstraint : classModel.getUniqueConstraints()) {
+            Map<String, Object> uniqueConstraintContext = new HashMap<>();
+            uniqueConstraintContext.put("name", uniqueConstraint.getName());
+            uniqueConstraintContext.put("columnNames", "{\"" + String.join("\", \"", uniqueConstraint.getColumnNames()) + "\"}");
+            uniqueConstraintContext.put("separator", uniqueConstraints.size() < classModel.getUniqueConstraints().size() - 1 ? "," : "");
+            uniqueConstraints.add(uniqueConstraintContext);
+        }
+        context.put("indexes", indexes);
+        context.put("hasIndexes", !indexes.isEmpty());
+        context.put("uniqueConstraints", uniqueConstraints);
+        context.put("hasUniqueConstraints", !uniqueConstraints.isEmpty());
+    }
+
+    private static Map<String, Object> of(ModelProperty property, boolean sequenceId) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("columnName", property.getLowerUnderscoreName());
+        context.put("propertyName", property.getLowerCamelCaseName());
+        context.put("upperCamelCaseName", property.getUpperCamelCaseName());
+        context.put("dtoType", property.getJavaDtoType());
+        context.put("entityType", property.getJavaEntityType());
+        context.put("jsType", property.getJsType());
+        context.put("reference", property.isReference());
+        context.put("referenceMapper", property.isReference() ? property.getJavaDtoType() + "Mapper" : null);
+        context.put("sequenceId", sequenceId);
+        context.put("sequenceName", property.getSequenceName());
+        return context;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Streams the generated files into a single zip (or sources jar) archive, so thousands of files take a single file
+// handle. The entries are in the order the emitters finish them.
+public class ZipOutputSink implements OutputSink {
+
+    private final ZipOutputStream out;
+
+    public ZipOutputSink(Path archivePath) throws IOException {
+        out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(archivePath), 64 * 1024));
+    }
+
+    @Override
+    public synchronized boolean write(String path, byte[] content) throws IOException {
+        out.putNextEntry(new ZipEntry(path));
+        out.write(content);
+        out.closeEntry();
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
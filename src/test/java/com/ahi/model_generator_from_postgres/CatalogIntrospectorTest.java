@@ -0,0 +1,78 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The tables read from the catalog of an in-process H2 database (in its PostgreSQL mode) have to come out as the
+// same models as the tables parsed from the equivalent DDL. H2 has no pg_catalog indexes, so the DDL has none.
+class CatalogIntrospectorTest {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:catalog;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    // TEXT is a CLOB in H2, so strings are varchar here, in both schemas.
+    private static final String DDL = "CREATE TABLE room_type (\n"
+            + "    id serial PRIMARY KEY,\n"
+            + "    name varchar(50) NOT NULL,\n"
+            + "    label varchar(100)\n"
+            + ");\n"
+            + "CREATE TABLE room (\n"
+            + "    id serial PRIMARY KEY,\n"
+            + "    number integer NOT NULL,\n"
+            + "    room_type_id integer,\n"
+            + "    smoking boolean,\n"
+            + "    CONSTRAINT room_number_key UNIQUE (number),\n"
+            + "    CONSTRAINT room_room_type_fk FOREIGN KEY (room_type_id) REFERENCES room_type (id)\n"
+            + ");\n"
+            + "CREATE TABLE booking (\n"
+            + "    booking_number integer PRIMARY KEY,\n"
+            + "    guest integer NOT NULL,\n"
+            + "    bed integer,\n"
+            + "    arrival date,\n"
+            + "    created timestamp,\n"
+            + "    price numeric(10,2),\n"
+            + "    CONSTRAINT booking_bed_fk FOREIGN KEY (bed) REFERENCES room (id)\n"
+            + ");\n";
+
+    @Test
+    void readsTheSameModelsAsTheDdl() throws SQLException, IOException {
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(DDL);
+            // Tables of other schemas are left out.
+            statement.execute("CREATE SCHEMA other");
+            statement.execute("CREATE TABLE other.invoice (id serial PRIMARY KEY, amount numeric(10,2))");
+
+            List<ClassModel> introspectedModels = new ArrayList<>();
+            Properties connectionProperties = new Properties();
+            connectionProperties.setProperty("user", "sa");
+            connectionProperties.setProperty("password", "");
+            CatalogIntrospector.introspect(JDBC_URL, connectionProperties, "public",
+                    new ClassModelBuilder(introspectedModels::add));
+
+            List<ClassModel> parsedModels = new ArrayList<>();
+            ClassModelBuilder classModelBuilder = new ClassModelBuilder(parsedModels::add);
+            SqlTokenizer.parse(ByteBuffer.wrap(DDL.getBytes(StandardCharsets.UTF_8)), classModelBuilder);
+            classModelBuilder.onSchemaEnd();
+
+            assertEquals(List.of("booking", "room", "room_type"), new ArrayList<>(ClassModelDescriptions.describe(introspectedModels).keySet()));
+            assertEquals(ClassModelDescriptions.describe(parsedModels), ClassModelDescriptions.describe(introspectedModels));
+        } finally {
+            try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClassModelBuilderTest {
+
+    // The sequences of the columns as "name" or "name always" (generated always), by column name.
+    @Test
+    void findsTheSequencesOfTheColumns() throws IOException {
+        Map<String, String> sequences = new LinkedHashMap<>();
+        sequences.put("serial_id", "thing_serial_id_seq");
+        sequences.put("nextval_id", "thing_seq");
+        sequences.put("set_default_id", "public.thing_set_seq");
+        sequences.put("identity_id", "thing_identity_id_seq always");
+        sequences.put("named_identity_id", "public.thing_named_seq");
+        sequences.put("added_identity_id", "public.thing_added_seq always");
+        sequences.put("dropped_identity_id", null);
+        sequences.put("dropped_default_id", null);
+        sequences.put("plain_id", null);
+        assertEquals(sequences, sequences("CREATE TABLE thing (\n"
+                + "    serial_id serial,\n"
+                + "    nextval_id bigint DEFAULT nextval('thing_seq'::regclass),\n"
+                + "    set_default_id integer,\n"
+                + "    identity_id integer GENERATED ALWAYS AS IDENTITY,\n"
+                + "    named_identity_id integer GENERATED BY DEFAULT AS IDENTITY (SEQUENCE NAME public.thing_named_seq),\n"
+                + "    added_identity_id integer NOT NULL,\n"
+                + "    dropped_identity_id integer GENERATED BY DEFAULT AS IDENTITY,\n"
+                + "    dropped_default_id integer DEFAULT nextval('thing_seq'),\n"
+                + "    plain_id integer DEFAULT 0\n"
+                + ");\n"
+                + "ALTER TABLE ONLY public.thing ALTER COLUMN set_default_id SET DEFAULT nextval('public.thing_set_seq'::regclass);\n"
+                + "ALTER TABLE public.thing ALTER COLUMN added_identity_id ADD GENERATED ALWAYS AS IDENTITY (\n"
+                + "    SEQUENCE NAME public.thing_added_seq\n"
+                + "    START WITH 1\n"
+                + "    INCREMENT BY 1\n"
+                + ");\n"
+                + "ALTER TABLE thing ALTER COLUMN dropped_identity_id DROP IDENTITY;\n"
+                + "ALTER TABLE thing ALTER COLUMN dropped_default_id DROP DEFAULT;\n"));
+    }
+
+    private static Map<String, String> sequences(String sql) throws IOException {
+        List<ClassModel> classModels = new ArrayList<>();
+        SqlTokenizer.parse(ByteBuffer.wrap(sql.getBytes(StandardCharsets.UTF_8)), new ClassModelBuilder(classModels::add));
+        Map<String, String> sequences = new LinkedHashMap<>();
+        List<ModelProperty> properties = new ArrayList<>(classModels.get(0).getInheritedProperties());
+        properties.addAll(classModels.get(0).getProperties());
+        for (ModelProperty property : properties) {
+            sequences.put(property.getLowerUnderscoreName(), property.getSequenceName() == null ? null
+                    : property.getSequenceName() + (property.isGeneratedAlways() ? " always" : ""));
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ahi.model_generator_from_postgres;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// The parts of the models the emitters use as text by table name, to compare models read in different ways. The
+// definition hashes are left out, they depend on how the definitions were written.
+class ClassModelDescriptions {
+
+    private ClassModelDescriptions() {
+    }
+
+    static Map<String, String> describe(List<ClassModel> classModels) {
+        Map<String, String> descriptions = new TreeMap<>();
+        for (ClassModel classModel : classModels) {
+            StringBuilder description = new StringBuilder();
+            description.append("class ").append(classModel.getUpperCamelCaseName())
+                    .append(" extends ").append(classModel.getExtendedClass()).append('\n');
+            description.append("primary key ").append(classModel.getPrimaryKeyColumns()).append('\n');
+            for (ModelProperty property : classModel.getInheritedProperties()) {
+                description.append("inherited ");
+                describe(property, description);
+            }
+            for (ModelProperty property : classModel.getProperties()) {
+                describe(property, description);
+            }
+            for (IndexModel index : classModel.getIndexes()) {
+                description.append(index.isUnique() ? "unique index " : "index ").append(index.getName()).append(' ')
+                        .append(index.getColumnNames()).append('\n');
+            }
+            for (IndexModel uniqueConstraint : classModel.getUniqueConstraints()) {
+                description.append("unique ").append(uniqueConstraint.getName()).append(' ')
+                        .append(uniqueConstraint.getColumnNames()).append('\n');
+            }
+            description.append("unindexed references ").append(classModel.getUnindexedReferenceColumns()).append('\n');
+            description.append("imports ").append(classModel.getJavaImportLines()).append(' ')
+                    .append(classModel.getJsImportLines()).append('\n');
+            descriptions.put(classModel.getLowerUnderscoreName(), description.toString());
+        }
+        return descriptions;
+    }
+
+    private static void describe(ModelProperty property, StringBuilder description) {
+        description.append(property.getLowerUnderscoreName()).append(' ').append(property.getLowerCamelCaseName())
+                .append(' ').append(property.getUpperCamelCaseName())
+                .append(' ').append(property.getJavaDtoType()).append(' ').append(property.getJavaEntityType())
+                .append(' ').append(property.getJsType())
+                .append(property.isReference() ? " reference" : "")
+                .append(property.getSequenceName() != null ? " sequence " + property.getSequenceName() : "")
+                .append('\n');
+    }
+}
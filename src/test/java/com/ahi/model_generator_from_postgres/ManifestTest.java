@@ -0,0 +1,77 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ManifestTest {
+
+    @Test
+    void readsWhatWasSaved(@TempDir Path directory) throws IOException {
+        Manifest manifest = new Manifest("1.0", "c0ffee");
+        manifest.putTable("room", "r1");
+        manifest.putNgRxStyle("room", "array");
+        manifest.addFile("room", "backend/entity/RoomEntity.java");
+        manifest.addFile("room", "frontend/models/room.ts");
+        manifest.putTable("room_type", "t1");
+        Path manifestPath = directory.resolve(".model-generator.manifest");
+        manifest.save(manifestPath);
+
+        Manifest loadedManifest = Manifest.load(manifestPath);
+        assertTrue(loadedManifest.isCompatibleWith(manifest));
+        assertEquals(Set.of("room", "room_type"), loadedManifest.getTableNames());
+        assertEquals("r1", loadedManifest.getHash("room"));
+        assertEquals("array", loadedManifest.getNgRxStyle("room"));
+        assertNull(loadedManifest.getNgRxStyle("room_type"));
+        assertEquals(Set.of("backend/entity/RoomEntity.java", "frontend/models/room.ts"), loadedManifest.getFiles("room"));
+        assertEquals(Set.of(), loadedManifest.getFiles("room_type"));
+        assertFalse(loadedManifest.isCompatibleWith(new Manifest("1.0", "other")));
+    }
+
+    @Test
+    void startsEmptyWithoutManifest(@TempDir Path directory) throws IOException {
+        Manifest manifest = Manifest.load(directory.resolve(".model-generator.manifest"));
+        assertEquals(Set.of(), manifest.getTableNames());
+        assertFalse(manifest.isCompatibleWith(manifest));
+    }
+
+    @Test
+    void rejectsMalformedManifests(@TempDir Path directory) throws IOException {
+        Map<String, List<String>> manifests = Map.of(
+                "table before config", List.of("version\t1.0", "table\troom\tr1", "config\tc0ffee"),
+                "config without version", List.of("config\tc0ffee"),
+                "missing hash", List.of("version\t1.0", "config\tc0ffee", "table\troom"),
+                "file of unknown table", List.of("version\t1.0", "config\tc0ffee", "file\troom\tbackend/Room.java"),
+                "second config", List.of("version\t1.0", "config\tc0ffee", "config\tc0ffee"),
+                "unknown line", List.of("version\t1.0", "config\tc0ffee", "room"));
+        for (Map.Entry<String, List<String>> manifest : manifests.entrySet()) {
+            Path manifestPath = directory.resolve(".model-generator.manifest");
+            Files.write(manifestPath, manifest.getValue(), StandardCharsets.UTF_8);
+            assertThrows(IOException.class, () -> Manifest.load(manifestPath), manifest.getKey());
+        }
+    }
+
+    @Test
+    void findsDroppedTables() {
+        Manifest previousManifest = new Manifest("1.0", "c0ffee");
+        previousManifest.putTable("room", "r1");
+        previousManifest.addFile("room", "backend/entity/RoomEntity.java");
+        previousManifest.putTable("room_type", "t1");
+        Manifest manifest = new Manifest("1.0", "c0ffee");
+        manifest.copyTable("room_type", previousManifest);
+        assertEquals(Map.of("room", Set.of("backend/entity/RoomEntity.java")), previousManifest.getTablesMissingFrom(manifest));
+    }
+}
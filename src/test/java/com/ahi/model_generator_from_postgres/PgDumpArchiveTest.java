@@ -0,0 +1,56 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The fixtures are synthetic, written after the archive format of pg_dump rather than by pg_dump itself: the table of
+// contents of a dump of two tables, without the data blocks. schema.dump is a custom archive of version 1.14 as
+// PostgreSQL 15 writes it, schema.dir the toc.dat of a directory archive of version 1.16 as PostgreSQL 17 writes it.
+// The definition of their last entry ends in a comment, without a line break.
+class PgDumpArchiveTest {
+
+    @Test
+    void readsCustomArchive() throws IOException, URISyntaxException {
+        assertRoomSchema(parse(resource("pg_dump/schema.dump")));
+    }
+
+    @Test
+    void readsDirectoryArchive() throws IOException, URISyntaxException {
+        assertRoomSchema(parse(resource("pg_dump/schema.dir").resolve(PgDumpArchive.DIRECTORY_TOC_FILE_NAME)));
+    }
+
+    private static List<ClassModel> parse(Path archiveFile) throws IOException {
+        assertTrue(PgDumpArchive.isArchive(archiveFile));
+        List<ClassModel> classModels = new ArrayList<>();
+        PgDumpArchive.parse(archiveFile, new ClassModelBuilder(classModels::add));
+        return classModels;
+    }
+
+    private static void assertRoomSchema(List<ClassModel> classModels) {
+        assertEquals(List.of("room_type", "room"), classModels.stream().map(ClassModel::getLowerUnderscoreName).collect(Collectors.toList()));
+        ClassModel room = classModels.get(1);
+        assertEquals(List.of("id"), room.getPrimaryKeyColumns());
+        assertEquals(List.of("number", "roomType", "isActive"),
+                room.getProperties().stream().map(ModelProperty::getLowerCamelCaseName).collect(Collectors.toList()));
+        assertTrue(room.getProperties().get(1).isReference());
+        // The serial default comes in a DEFAULT entry of its own.
+        ModelProperty id = room.getInheritedProperties().get(0);
+        assertEquals("id", id.getLowerUnderscoreName());
+        assertEquals("public.room_id_seq", id.getSequenceName());
+        assertEquals("room_number_idx", room.getIndexes().get(0).getName());
+        assertTrue(room.getIndexes().get(0).isUnique());
+    }
+
+    private static Path resource(String name) throws URISyntaxException {
+        return Path.of(PgDumpArchiveTest.class.getClassLoader().getResource(name).toURI());
+    }
+}
@@ -0,0 +1,90 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SchemaCacheTest {
+
+    private static final String DDL = "CREATE TABLE room_type (\n"
+            + "    id serial PRIMARY KEY,\n"
+            + "    name text NOT NULL UNIQUE\n"
+            + ");\n"
+            + "CREATE TABLE room (\n"
+            + "    id integer PRIMARY KEY DEFAULT nextval('room_id_seq'),\n"
+            + "    room_type_id integer REFERENCES room_type,\n"
+            + "    is_active boolean,\n"
+            + "    created timestamp with time zone,\n"
+            + "    price numeric(10,2)\n"
+            + ");\n"
+            + "CREATE INDEX room_created_idx ON room (created);\n";
+
+    @Test
+    void readsTheModelsItWrote(@TempDir Path directory) throws IOException {
+        List<ClassModel> classModels = parse(DDL);
+        Path cachePath = directory.resolve(".model-generator.schema");
+        SchemaCache.write(cachePath, "fingerprint", classModels);
+
+        List<ClassModel> cachedClassModels = SchemaCache.read(cachePath, "fingerprint");
+        assertEquals(ClassModelDescriptions.describe(classModels), ClassModelDescriptions.describe(cachedClassModels));
+        assertEquals(hashes(classModels), hashes(cachedClassModels));
+        // The Is of boolean is_ columns is dropped once, not again on reading.
+        assertEquals("Active", cachedClassModels.get(1).getProperties().get(1).getUpperCamelCaseName());
+        // A null fingerprint accepts any cache.
+        assertEquals(hashes(classModels), hashes(SchemaCache.read(cachePath, null)));
+    }
+
+    @Test
+    void ignoresCachesOfOtherInputs(@TempDir Path directory) throws IOException {
+        Path cachePath = directory.resolve(".model-generator.schema");
+        assertNull(SchemaCache.read(cachePath, "fingerprint"));
+        SchemaCache.write(cachePath, "fingerprint", parse(DDL));
+        assertNull(SchemaCache.read(cachePath, "other fingerprint"));
+        Files.writeString(cachePath, "not a cache", StandardCharsets.UTF_8);
+        assertNull(SchemaCache.read(cachePath, "fingerprint"));
+    }
+
+    @Test
+    void rejectsTruncatedCaches(@TempDir Path directory) throws IOException {
+        Path cachePath = directory.resolve(".model-generator.schema");
+        SchemaCache.write(cachePath, "fingerprint", parse(DDL));
+        byte[] bytes = Files.readAllBytes(cachePath);
+        Files.write(cachePath, Arrays.copyOf(bytes, bytes.length - 10));
+        assertThrows(IOException.class, () -> SchemaCache.read(cachePath, "fingerprint"));
+    }
+
+    @Test
+    void fingerprintChangesWithTheSchemaFiles(@TempDir Path directory) throws IOException {
+        Path schemaFile = directory.resolve("schema.sql");
+        Files.writeString(schemaFile, DDL, StandardCharsets.UTF_8);
+        String fingerprint = SchemaCache.fingerprint(List.of(schemaFile), "1.0");
+        assertEquals(fingerprint, SchemaCache.fingerprint(List.of(schemaFile), "1.0"));
+        assertNotEquals(fingerprint, SchemaCache.fingerprint(List.of(schemaFile), "1.1"));
+        Files.writeString(schemaFile, DDL + "CREATE TABLE guest (id integer);\n", StandardCharsets.UTF_8);
+        assertNotEquals(fingerprint, SchemaCache.fingerprint(List.of(schemaFile), "1.0"));
+    }
+
+    private static List<ClassModel> parse(String sql) throws IOException {
+        List<ClassModel> classModels = new ArrayList<>();
+        SqlTokenizer.parse(ByteBuffer.wrap(sql.getBytes(StandardCharsets.UTF_8)), new ClassModelBuilder(classModels::add));
+        return classModels;
+    }
+
+    private static List<String> hashes(List<ClassModel> classModels) {
+        return classModels.stream().map(ClassModel::getDefinitionHash).collect(Collectors.toList());
+    }
+}
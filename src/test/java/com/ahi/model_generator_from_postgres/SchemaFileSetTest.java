@@ -0,0 +1,98 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SchemaFileSetTest {
+
+    @Test
+    void ordersMigrationsByVersion(@TempDir Path directory) throws IOException {
+        List<String> names = List.of("V1__rooms.sql", "V1.1__room_types.sql", "V1_2__guests.sql", "V2__bookings.sql",
+                "V2.0.1__prices.sql", "V10__invoices.sql", "V10.1.2__taxes.sql");
+        for (String name : names) {
+            Files.writeString(directory.resolve(name), "", StandardCharsets.UTF_8);
+        }
+        Files.createDirectories(directory.resolve("2"));
+        Files.writeString(directory.resolve("2").resolve("V0__later.sql"), "", StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("notes.txt"), "", StandardCharsets.UTF_8);
+
+        List<String> expectedNames = new ArrayList<>(names);
+        expectedNames.add(0, "2/V0__later.sql");
+        assertEquals(expectedNames, SchemaFileSet.resolve(directory.toString()).stream()
+                .map(x -> directory.relativize(x).toString().replace('\\', '/')).collect(Collectors.toList()));
+        assertEquals(List.of("V1__rooms.sql", "V2__bookings.sql"), SchemaFileSet.resolve(directory.resolve("V?__*.sql").toString())
+                .stream().map(x -> x.getFileName().toString()).collect(Collectors.toList()));
+    }
+
+    @Test
+    void comparesNamesNaturally() {
+        assertEquals(-1, Integer.signum(SchemaFileSet.comparePaths("V1__y.sql", "V1_1__x.sql")));
+        assertEquals(-1, Integer.signum(SchemaFileSet.comparePaths("V1__y.sql", "V1.1__x.sql")));
+        assertEquals(-1, Integer.signum(SchemaFileSet.comparePaths("V1.9__y.sql", "V1.10__x.sql")));
+        assertEquals(-1, Integer.signum(SchemaFileSet.comparePaths("schema2.sql", "schema10.sql")));
+        assertEquals(-1, Integer.signum(SchemaFileSet.comparePaths("a/V9__x.sql", "b/V1__x.sql")));
+        assertEquals(0, SchemaFileSet.comparePaths("V1__x.sql", "V1__x.sql"));
+    }
+
+    // Every file alters the table of the first one, so they only give the columns in order when applied in order.
+    @Test
+    void appliesTheFilesInOrder(@TempDir Path directory) throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>();
+        List<String> expectedColumns = new ArrayList<>();
+        files.add(Files.writeString(directory.resolve("V0__room.sql"), "CREATE TABLE room (id serial PRIMARY KEY);",
+                StandardCharsets.UTF_8));
+        for (int i = 1; i <= 40; i++) {
+            files.add(Files.writeString(directory.resolve("V" + i + "__column.sql"),
+                    "ALTER TABLE room ADD COLUMN column" + i + " integer;", StandardCharsets.UTF_8));
+            expectedColumns.add("column" + i);
+        }
+        files.add(Files.writeString(directory.resolve("V41__drop.sql"), "ALTER TABLE room DROP COLUMN column7;",
+                StandardCharsets.UTF_8));
+        expectedColumns.remove("column7");
+
+        List<ClassModel> classModels = new ArrayList<>();
+        ClassModelBuilder classModelBuilder = new ClassModelBuilder(classModels::add);
+        SchemaFileSet.parse(files, 3, classModelBuilder);
+        assertEquals(List.of(), classModelBuilder.getConflicts());
+        assertEquals(expectedColumns, classModels.get(0).getProperties().stream()
+                .map(ModelProperty::getLowerUnderscoreName).collect(Collectors.toList()));
+    }
+
+    // A file with the same size and modification time is taken for unmodified, its recorded events are replayed.
+    @Test
+    void replaysTheEventsOfUnmodifiedFiles(@TempDir Path directory) throws IOException, InterruptedException {
+        Path roomFile = Files.writeString(directory.resolve("V1__room.sql"), "CREATE TABLE room (id serial PRIMARY KEY);",
+                StandardCharsets.UTF_8);
+        Path columnFile = Files.writeString(directory.resolve("V2__column.sql"), "ALTER TABLE room ADD COLUMN floor integer;",
+                StandardCharsets.UTF_8);
+        List<Path> files = List.of(roomFile, columnFile);
+        SchemaFileSet.Recordings recordings = new SchemaFileSet.Recordings();
+        assertEquals(List.of("floor"), parseColumns(files, recordings));
+
+        FileTime lastModifiedTime = Files.getLastModifiedTime(columnFile);
+        Files.writeString(columnFile, "ALTER TABLE room ADD COLUMN price integer;", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(columnFile, lastModifiedTime);
+        assertEquals(List.of("floor"), parseColumns(files, recordings));
+
+        Files.setLastModifiedTime(columnFile, FileTime.fromMillis(lastModifiedTime.toMillis() + 1000));
+        assertEquals(List.of("price"), parseColumns(files, recordings));
+    }
+
+    private static List<String> parseColumns(List<Path> files, SchemaFileSet.Recordings recordings)
+            throws IOException, InterruptedException {
+        List<ClassModel> classModels = new ArrayList<>();
+        SchemaFileSet.parse(files, 2, new ClassModelBuilder(classModels::add), recordings);
+        return classModels.get(0).getProperties().stream().map(ModelProperty::getLowerUnderscoreName).collect(Collectors.toList());
+    }
+}
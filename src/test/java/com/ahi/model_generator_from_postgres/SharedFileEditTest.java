@@ -0,0 +1,86 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SharedFileEditTest {
+
+    private static final String PATH = "frontend/store/room-rack.reducer.ts";
+
+    @Test
+    void insertsTheLinesOfEveryTableInOneWrite(@TempDir Path directory) throws IOException {
+        Path sourceFile = directory.resolve("room-rack.reducer.ts");
+        Files.write(sourceFile, List.of(
+                "import { createReducer } from '@ngrx/store';",
+                "export interface State {",
+                "}",
+                "export const reducer = createReducer(initialState,",
+                ");"), StandardCharsets.UTF_8);
+        SharedFileEdit edit = new SharedFileEdit(PATH, sourceFile);
+        for (String table : List.of("room", "guest")) {
+            edit.prependIfAbsent("import { createReducer } from '@ngrx/store';");
+            edit.prependIfAbsent("import * as actions from './room-rack.action';");
+            edit.prepend("import { " + table + " } from './" + table + "';");
+            edit.insertAt("export interface State {", 1, "    " + table + "s: " + table + "[];");
+            edit.insertAt("export const reducer = createReducer(initialState,", 1, "    on(" + table + "sLoaded),");
+            edit.append("export const select" + table + "s = 1;");
+        }
+        InMemoryOutputSink outputSink = new InMemoryOutputSink();
+        edit.apply(new OutputWriter(outputSink));
+
+        assertEquals(String.join(System.lineSeparator(), List.of(
+                "import * as actions from './room-rack.action';",
+                "import { room } from './room';",
+                "import { guest } from './guest';",
+                "import { createReducer } from '@ngrx/store';",
+                "export interface State {",
+                "    rooms: room[];",
+                "    guests: guest[];",
+                "}",
+                "export const reducer = createReducer(initialState,",
+                "    on(roomsLoaded),",
+                "    on(guestsLoaded),",
+                ");",
+                "export const selectrooms = 1;",
+                "export const selectguests = 1;")) + System.lineSeparator(), outputSink.getFile(PATH));
+    }
+
+    @Test
+    void skipsLinesWhoseAnchorIsMissing(@TempDir Path directory) throws IOException {
+        Path sourceFile = directory.resolve("room-rack.reducer.ts");
+        Files.write(sourceFile, List.of("export interface State {", "}"), StandardCharsets.UTF_8);
+        SharedFileEdit edit = new SharedFileEdit(PATH, sourceFile);
+        edit.insertAt("export interface State {", 1, "    rooms: room[];");
+        edit.insertAt("export const reducer = createReducer(initialState,", 1, "    on(roomsLoaded),");
+        InMemoryOutputSink outputSink = new InMemoryOutputSink();
+        edit.apply(new OutputWriter(outputSink));
+
+        assertEquals(String.join(System.lineSeparator(), List.of("export interface State {", "    rooms: room[];", "}"))
+                + System.lineSeparator(), outputSink.getFile(PATH));
+    }
+
+    @Test
+    void skipsMissingFiles(@TempDir Path directory) throws IOException {
+        SharedFileEdit edit = new SharedFileEdit(PATH, directory.resolve("missing.ts"));
+        edit.append("export const selectrooms = 1;");
+        InMemoryOutputSink outputSink = new InMemoryOutputSink();
+        edit.apply(new OutputWriter(outputSink));
+        assertNull(outputSink.getFile(PATH));
+    }
+
+    @Test
+    void leavesTheFileAloneWithoutEdits(@TempDir Path directory) throws IOException {
+        InMemoryOutputSink outputSink = new InMemoryOutputSink();
+        new SharedFileEdit(PATH, directory.resolve("missing.ts")).apply(new OutputWriter(outputSink));
+        assertNull(outputSink.getFile(PATH));
+    }
+}
@@ -0,0 +1,205 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlTokenizerTest {
+
+    // The events of the listener as text, in the order they arrive.
+    private static class EventListener implements SchemaListener {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onTable(String tableName) {
+            events.add("table " + tableName);
+        }
+
+        @Override
+        public void onColumn(String tableName, String columnName, String columnType, String definition) {
+            events.add("column " + tableName + "." + columnName + " " + columnType + ": " + definition);
+        }
+
+        @Override
+        public void onTableEnd(String tableName) {
+            events.add("end " + tableName);
+        }
+
+        @Override
+        public void onPrimaryKey(String tableName, List<String> columnNames) {
+            events.add("primary key " + tableName + " " + columnNames);
+        }
+
+        @Override
+        public void onForeignKey(String tableName, List<String> columnNames, String referencedTableName) {
+            events.add("foreign key " + tableName + " " + columnNames + " " + referencedTableName);
+        }
+
+        @Override
+        public void onUniqueConstraint(String tableName, String constraintName, List<String> columnNames) {
+            events.add("unique " + tableName + " " + constraintName + " " + columnNames);
+        }
+
+        @Override
+        public void onIndex(String tableName, String indexName, List<String> columnNames, boolean unique) {
+            events.add((unique ? "unique index " : "index ") + tableName + " " + indexName + " " + columnNames);
+        }
+
+        @Override
+        public void onColumnDefaultChanged(String tableName, String columnName, String defaultExpression, boolean optional) {
+            events.add("default " + tableName + "." + columnName + ": " + defaultExpression);
+        }
+
+        @Override
+        public void onColumnIdentityChanged(String tableName, String columnName, String identityDefinition, boolean optional) {
+            events.add("identity " + tableName + "." + columnName + ": " + identityDefinition);
+        }
+
+        @Override
+        public void onSchemaEnd() {
+            events.add("schema end");
+        }
+    }
+
+    @Test
+    void readsColumnsSpreadOverSeveralLines() throws IOException {
+        assertEquals(List.of(
+                "table room",
+                "column room.id integer: integer NOT NULL",
+                "column room.price numeric: numeric(10, 2) DEFAULT 0",
+                "end room",
+                "schema end"), parse("CREATE TABLE room (\n"
+                + "    id\n        integer\n        NOT NULL,\n"
+                + "    price numeric(10,\n 2)\n    DEFAULT 0\n"
+                + ");\n"));
+    }
+
+    @Test
+    void readsColumnConstraintsOfTablesWithoutConstraintLines() throws IOException {
+        assertEquals(List.of(
+                "table room",
+                "column room.id serial: serial primary key",
+                "primary key room [id]",
+                "column room.number integer: integer unique",
+                "unique room null [number]",
+                "column room.room_type_id integer: integer references public.room_type",
+                "foreign key room [room_type_id] room_type",
+                "end room",
+                "schema end"), parse("create table room (id serial primary key, number integer unique,"
+                + " room_type_id integer references public.room_type);"));
+    }
+
+    @Test
+    void readsQuotedIdentifiers() throws IOException {
+        assertEquals(List.of(
+                "table Room Type",
+                "column Room Type.Name text: text",
+                "column Room Type.a\"b integer: integer",
+                "end Room Type",
+                "index Room Type Room Type_name_idx [Name]",
+                "schema end"), parse("CREATE TABLE public.\"Room Type\" (\"Name\" text, \"a\"\"b\" integer);\n"
+                + "CREATE INDEX \"Room Type_name_idx\" ON \"Room Type\" (\"Name\");"));
+    }
+
+    @Test
+    void skipsNestedBlockComments() throws IOException {
+        assertEquals(List.of(
+                "table room",
+                "column room.id integer: integer",
+                "end room",
+                "schema end"), parse("/* outer /* inner */ CREATE TABLE hidden (x integer); */\n"
+                + "CREATE TABLE room (/* a comment */ id integer -- another one\n);"));
+    }
+
+    @Test
+    void skipsDollarQuotedBodies() throws IOException {
+        assertEquals(List.of(
+                "table room",
+                "column room.id integer: integer",
+                "end room",
+                "schema end"), parse("CREATE FUNCTION f() RETURNS void AS $$ BEGIN CREATE TABLE hidden (x integer); END $$"
+                + " LANGUAGE plpgsql;\n"
+                + "DO $body$ BEGIN EXECUTE $$CREATE TABLE hidden (x integer);$$; END $body$;\n"
+                + "CREATE TABLE room (id integer);"));
+    }
+
+    @Test
+    void skipsCopyData() throws IOException {
+        assertEquals(List.of(
+                "table room",
+                "column room.id integer: integer",
+                "end room",
+                "table room_type",
+                "column room_type.id integer: integer",
+                "end room_type",
+                "schema end"), parse("CREATE TABLE room (id integer);\n"
+                + "COPY public.room (id) FROM stdin;\n"
+                + "1\tCREATE TABLE hidden (x integer);\n"
+                + "2\t'unterminated\n"
+                + "\\.\n"
+                + "CREATE TABLE room_type (id integer);"));
+    }
+
+    // As written by pg_dump for identity columns.
+    @Test
+    void readsIdentitiesAddedToColumns() throws IOException {
+        assertEquals(List.of(
+                "identity room.id: GENERATED ALWAYS AS IDENTITY(SEQUENCE NAME public.room_id_seq START WITH 1 INCREMENT BY 1"
+                        + " NO MINVALUE NO MAXVALUE CACHE 1)",
+                "identity room.number: null",
+                "schema end"), parse("ALTER TABLE public.room ALTER COLUMN id ADD GENERATED ALWAYS AS IDENTITY (\n"
+                + "    SEQUENCE NAME public.room_id_seq\n    START WITH 1\n    INCREMENT BY 1\n    NO MINVALUE\n"
+                + "    NO MAXVALUE\n    CACHE 1\n);\n"
+                + "ALTER TABLE room ALTER number DROP IDENTITY IF EXISTS;"));
+    }
+
+    @Test
+    void readsDefinitionsEndingInCommentOrMetaCommand() throws IOException {
+        for (String end : List.of("-- end of the schema", "\\connect hotel")) {
+            assertEquals(List.of(
+                    "table room",
+                    "column room.id integer: integer PRIMARY KEY",
+                    "primary key room [id]",
+                    "end room",
+                    "schema end"), parse("CREATE TABLE room (id integer PRIMARY KEY);\n" + end));
+        }
+    }
+
+    // Every token, comment and quoted body of the file crosses the boundary of a window somewhere.
+    @Test
+    void readsStatementsAcrossWindowBoundaries(@TempDir Path directory) throws IOException {
+        String sql = "-- schema\n"
+                + "CREATE TABLE room_type (id serial PRIMARY KEY, name varchar(50) NOT NULL);\n"
+                + "/* nested /* comment */ CREATE TABLE hidden (x integer); */\n"
+                + "CREATE FUNCTION f() RETURNS void AS $body$ BEGIN CREATE TABLE hidden (x integer); END $body$ LANGUAGE plpgsql;\n"
+                + "CREATE TABLE \"room\" (\n    id serial PRIMARY KEY,\n    room_type_id integer REFERENCES room_type,\n"
+                + "    note text DEFAULT 'it''s; free'\n);\n"
+                + "COPY room (id) FROM stdin;\n1\n2\n\\.\n"
+                + "ALTER TABLE ONLY public.room ALTER COLUMN id SET DEFAULT nextval('room_id_seq'::regclass);\n"
+                + "CREATE UNIQUE INDEX room_note_idx ON room (note);\n";
+        Path sqlFile = directory.resolve("schema.sql");
+        Files.writeString(sqlFile, sql, StandardCharsets.UTF_8);
+        List<String> expectedEvents = parse(sql);
+        assertEquals(15, expectedEvents.size());
+        for (long windowSize : List.of(8L, 13L, 64L, 1000L)) {
+            EventListener listener = new EventListener();
+            SqlTokenizer.parse(sqlFile, listener, windowSize);
+            assertEquals(expectedEvents, listener.events, "window size " + windowSize);
+        }
+    }
+
+    private static List<String> parse(String sql) throws IOException {
+        EventListener listener = new EventListener();
+        SqlTokenizer.parse(ByteBuffer.wrap(sql.getBytes(StandardCharsets.UTF_8)), listener);
+        return listener.events;
+    }
+}
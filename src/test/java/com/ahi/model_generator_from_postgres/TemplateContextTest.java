@@ -0,0 +1,50 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TemplateContextTest {
+
+    @Test
+    void namesTheIdAfterThePrimaryKey() throws IOException {
+        Map<String, Object> context = TemplateContext.of(parse("CREATE TABLE booking (guest integer, booking_number integer PRIMARY KEY);"),
+                new Properties());
+        assertEquals("bookingNumber", context.get("idPropertyName"));
+        assertEquals("Integer", context.get("primaryKeyType"));
+    }
+
+    @Test
+    void rejectsTablesWithoutColumns() throws IOException {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> TemplateContext.of(parse("CREATE TABLE nothing ();"), new Properties()));
+        assertEquals("Table nothing has no columns for an id.", e.getMessage());
+    }
+
+    @Test
+    void cachesEnumTablesUnlessTurnedOff() throws IOException {
+        String sql = "CREATE TABLE room_type (id serial PRIMARY KEY, name text, label text);";
+        assertEquals(true, TemplateContext.of(parse(sql), new Properties()).get("enumCache"));
+        Properties config = new Properties();
+        config.setProperty("enumCache", "false");
+        Map<String, Object> context = TemplateContext.of(parse(sql), config);
+        assertEquals(true, context.get("enumTable"));
+        assertEquals(false, context.get("enumCache"));
+        assertEquals(false, TemplateContext.of(parse("CREATE TABLE room (id serial PRIMARY KEY);"), new Properties()).get("enumCache"));
+    }
+
+    private static ClassModel parse(String sql) throws IOException {
+        List<ClassModel> classModels = new ArrayList<>();
+        SqlTokenizer.parse(ByteBuffer.wrap(sql.getBytes(StandardCharsets.UTF_8)), new ClassModelBuilder(classModels::add));
+        return classModels.get(0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ahi.model_generator_from_postgres;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TemplateTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    void rendersSectionsOverCollectionsAndFlags() {
+        Template template = Template.compile("class {{name}} {\n"
+                + "    {{#properties}}\n"
+                + "    private {{type}} {{name}};\n"
+                + "    {{/properties}}\n"
+                + "    {{#cached}}\n"
+                + "    // cached\n"
+                + "    {{/cached}}\n"
+                + "    {{^properties}}\n"
+                + "    // no properties\n"
+                + "    {{/properties}}\n"
+                + "}\n");
+        assertEquals("class Room {" + NL
+                + "    private Integer number;" + NL
+                + "    private String name;" + NL
+                + "}", render(template, Map.of("name", "Room", "cached", false, "properties", List.of(
+                        Map.of("type", "Integer", "name", "number"),
+                        Map.of("type", "String", "name", "name")))));
+        assertEquals("class Type {" + NL
+                + "    // cached" + NL
+                + "    // no properties" + NL
+                + "}", render(template, Map.of("name", "Type", "cached", true, "properties", List.of())));
+    }
+
+    @Test
+    void looksUpNamesOutwardsAndRendersTheCurrentItem() {
+        Template template = Template.compile("{{#lines}}{{prefix}}{{.}};{{/lines}}{{#label}}[{{label}}]{{/label}}{{missing}}");
+        assertEquals("import a;import b;", render(template, Map.of("prefix", "import ", "lines", List.of("a", "b"), "label", "")));
+        assertEquals("[x]", render(template, Map.of("lines", List.of(), "label", "x")));
+    }
+
+    // The output is code, so the values are inserted as they are, without any (HTML) escaping.
+    @Test
+    void insertsValuesUnescaped() {
+        Template template = Template.compile("List<{{type}}> {{name}} = {{value}};");
+        assertEquals("List<Map<String, Object>> a = \"<&>\" + '\\n';",
+                render(template, Map.of("type", "Map<String, Object>", "name", "a", "value", "\"<&>\" + '\\n'")));
+    }
+
+    @Test
+    void rejectsUnbalancedTags() {
+        assertThrows(IllegalArgumentException.class, () -> Template.compile("{{#a}}x"));
+        assertThrows(IllegalArgumentException.class, () -> Template.compile("{{#a}}x{{/b}}"));
+        assertThrows(IllegalArgumentException.class, () -> Template.compile("x{{/a}}"));
+        assertThrows(IllegalArgumentException.class, () -> Template.compile("{{name"));
+    }
+
+    @Test
+    void compilesTheBuiltInTemplates() throws IOException {
+        for (String name : Generator.TEMPLATE_NAMES) {
+            Template.load(name, null);
+        }
+        assertThrows(IOException.class, () -> Template.load("missing", null));
+    }
+
+    private static String render(Template template, Map<String, ?> context) {
+        StringBuilder out = new StringBuilder();
+        template.render(context, out);
+        return out.toString();
+    }
+}